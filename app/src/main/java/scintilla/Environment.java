@@ -6,6 +6,7 @@ public class Environment {
     private static volatile Integer port = null;
     private static volatile Boolean headless = null;
     private static volatile Boolean securable = null;
+    private static volatile Boolean virtualThreads = null;
 
     public static final synchronized String getIPAddress() {
         return (ipAddress == null && (ipAddress = System.getenv(PREFIX + "ADDRESS")) == null) ? ipAddress = "0.0.0.0"
@@ -29,4 +30,9 @@ public class Environment {
     public static final synchronized boolean isSecure() {
         return securable != null ? securable.booleanValue() : (securable = (System.getenv(PREFIX + "SECURE") != null));
     }
+
+    public static final synchronized boolean useVirtualThreads() {
+        return virtualThreads != null ? virtualThreads.booleanValue()
+                : (virtualThreads = (System.getenv(PREFIX + "VIRTUAL_THREADS") != null));
+    }
 }
@@ -0,0 +1,81 @@
+package scintilla;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/**
+ * Jetty thread pool that runs every task on its own virtual thread, so a request waiting on a lock parks
+ * instead of holding on to one of a fixed number of platform threads.
+ *
+ * Virtual threads need Java 21. The executor is looked up reflectively so the project still builds on older
+ * toolchains, where {@link #install()} leaves Spark's default pool in place.
+ */
+final class VirtualThreadPool implements ThreadPool {
+    private final ExecutorService executor;
+
+    private VirtualThreadPool(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Makes Spark's embedded Jetty serve requests on virtual threads. Must be called before any route is mapped.
+     * @return whether virtual threads are available on this JVM.
+     */
+    static boolean install() {
+        ExecutorService executor;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+
+        VirtualThreadPool pool = new VirtualThreadPool(executor);
+        JettyServerFactory serverFactory = new JettyServerFactory() {
+            @Override
+            public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+                return new Server(pool);
+            }
+
+            @Override
+            public Server create(ThreadPool threadPool) {
+                return new Server(threadPool != null ? threadPool : pool);
+            }
+        };
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY,
+                new EmbeddedJettyFactory(serverFactory).withThreadPool(pool));
+        return true;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int getThreads() {
+        return 0;
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
@@ -11,6 +11,9 @@ final class WebServer {
     private boolean isSecure = Environment.isSecure();
 
     public void initialize() {
+        if (Environment.useVirtualThreads() && !VirtualThreadPool.install()) {
+            System.err.println("Virtual threads need Java 21, serving requests on platform threads");
+        }
         port(port);
         ipAddress(ipAddress);
         // if (isSecure) {
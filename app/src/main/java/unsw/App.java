@@ -1,8 +1,22 @@
 package unsw;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -12,6 +26,15 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
 
 import scintilla.Scintilla;
 import spark.Request;
@@ -21,10 +44,37 @@ import static spark.Spark.get;
 import static spark.Spark.options;
 import static spark.Spark.post;
 import unsw.exceptions.UNSWException;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrackInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.BulkItem;
+import unsw.trains.DeltaStream;
+import unsw.trains.SimulationJob;
+import unsw.trains.SimulationJobs;
+import unsw.trains.Snapshot;
 import unsw.trains.TrainsController;
+import unsw.utils.ResponseJsonCache;
 
 public class App {
-    private static TrainsController tc = new TrainsController();
+    private static final TrainsController tc = new TrainsController();
+
+    /**
+     * Serializes changes to the controller. Queries read the controller's latest snapshot, and take no lock unless
+     * something has been created since it was published. It is fair, so a simulation job taking it again after each
+     * slice goes behind anything already waiting.
+     */
+    private static final ReentrantLock LOCK = new ReentrantLock(true);
+
+    private static final SimulationJobs JOBS = new SimulationJobs(tc, LOCK);
+
+    private static final DeltaStream DELTAS = new DeltaStream(tc);
+    private static final long KEEPALIVE_SECONDS = 15;
+
+    /**
+     * Entities whose JSON is kept per kind, so that polling the /all endpoints of a quiet network doesn't
+     * serialize anything.
+     */
+    private static final int JSON_CACHE_CAPACITY = 65536;
 
     public static void main(String[] args) {
         Scintilla.initialize();
@@ -55,6 +105,8 @@ public class App {
         cargoRoutes(gson);
         passengerRoutes(gson);
         miscRoutes(gson);
+        eventRoutes(gson);
+        adminRoutes(gson);
 
         Scintilla.start();
     }
@@ -90,54 +142,266 @@ public class App {
         }
     }
 
-    private static synchronized TrainsController getTrainsController(Request request) {
+    /**
+     * Streams the JSON array of the responses straight to the client, chunked, rather than building it first.
+     */
+    private static <R> String writeJsonArray(Response response, ResponseJsonCache json, List<R> infos,
+            Function<R, String> idOf) throws IOException {
+        response.type("application/json");
+        Writer out = new OutputStreamWriter(response.raw().getOutputStream(), StandardCharsets.UTF_8);
+        try {
+            json.writeJsonArray(infos, idOf, out);
+            out.flush();
+        } catch (IOException e) {
+            // the client went away part-way, and it's too late to send an error
+        }
+        return "";
+    }
+
+    /**
+     * Reads the optional sinceTick query parameter, and tells the client the snapshot's tick to pass next time.
+     */
+    private static Optional<Long> getSinceTick(Request request, Response response, Snapshot snapshot)
+            throws UNSWException {
+        response.header("X-Tick", Long.toString(snapshot.getTick()));
+        String sinceTick = request.queryParams("sinceTick");
+        if (sinceTick == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(sinceTick));
+        } catch (NumberFormatException e) {
+            throw new UNSWException("Invalid sinceTick: " + sinceTick, "unknown", 400);
+        }
+    }
+
+    private static TrainsController getTrainsController(Request request) {
         return tc;
     }
 
+    /**
+     * @return the controller's latest snapshot. Creates leave publishing it to the next read, which is done under
+     *         the lock since it reads the live state; otherwise no lock is taken.
+     */
+    private static Snapshot snapshot(TrainsController tc) {
+        return tc.hasUnpublishedChanges() ? write(tc::getSnapshot) : tc.getPublishedSnapshot();
+    }
+
+    private static <T> T write(Supplier<T> mutation) {
+        LOCK.lock();
+        try {
+            return mutation.get();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Reads the item of a station create from a request body.
+     */
+    private static BulkItem stationItem(JsonObject jsonBody) throws Exception {
+        App.validateWantedKeys(jsonBody, Arrays.asList("stationId", "type", "x", "y"));
+
+        String stationId = jsonBody.get("stationId").getAsString();
+        String type = jsonBody.get("type").getAsString();
+        Double posX = jsonBody.get("x").getAsDouble();
+        Double posY = jsonBody.get("y").getAsDouble();
+
+        return new BulkItem(stationId, tc -> tc.createStation(stationId, type, posX, posY));
+    }
+
+    private static BulkItem trainItem(JsonObject jsonBody) throws Exception {
+        App.validateWantedKeys(jsonBody, Arrays.asList("trainId", "type", "stationId", "route"));
+
+        String trainId = jsonBody.get("trainId").getAsString();
+        String type = jsonBody.get("type").getAsString();
+        String stationId = jsonBody.get("stationId").getAsString();
+        List<String> route = StreamSupport.stream(jsonBody.getAsJsonArray("route").spliterator(), false)
+                .map(JsonElement::getAsString).collect(Collectors.toList());
+
+        return new BulkItem(trainId, tc -> tc.createTrain(trainId, type, stationId, route));
+    }
+
+    private static BulkItem trackItem(JsonObject jsonBody) throws Exception {
+        App.validateWantedKeys(jsonBody, Arrays.asList("trackId", "fromStationId", "toStationId", "type"));
+
+        String trackId = jsonBody.get("trackId").getAsString();
+        String fromStationId = jsonBody.get("fromStationId").getAsString();
+        String toStationId = jsonBody.get("toStationId").getAsString();
+        String type = jsonBody.get("type").getAsString();
+
+        if (type.equals("NORMAL")) {
+            return new BulkItem(trackId, tc -> tc.createTrack(trackId, fromStationId, toStationId));
+        } else if (type.equals("UNBROKEN")) {
+            return new BulkItem(trackId, tc -> tc.createTrack(trackId, fromStationId, toStationId, true));
+        } else {
+            throw new UNSWException("Invalid type: " + type, "unknown", 400);
+        }
+    }
+
+    private static BulkItem cargoItem(JsonObject jsonBody) throws Exception {
+        App.validateWantedKeys(jsonBody, Arrays.asList("startStationId", "destStationId", "cargoId", "weight"));
+
+        Optional<Integer> minsTillPerish = !jsonBody.has("minsTillPerish") || jsonBody.get("minsTillPerish").isJsonNull()
+                ? Optional.empty()
+                : Optional.of(jsonBody.get("minsTillPerish").getAsInt());
+        String startStationId = jsonBody.get("startStationId").getAsString();
+        String destStationId = jsonBody.get("destStationId").getAsString();
+        String cargoId = jsonBody.get("cargoId").getAsString();
+        int weight = jsonBody.get("weight").getAsInt();
+
+        if (minsTillPerish.isPresent()) {
+            return new BulkItem(cargoId, tc -> tc.createPerishableCargo(startStationId, destStationId, cargoId,
+                    weight, minsTillPerish.get()));
+        } else {
+            return new BulkItem(cargoId, tc -> tc.createCargo(startStationId, destStationId, cargoId, weight));
+        }
+    }
+
+    private static BulkItem passengerItem(JsonObject jsonBody) throws Exception {
+        App.validateWantedKeys(jsonBody, Arrays.asList("startStationId", "destStationId", "passengerId", "type"));
+
+        String startStationId = jsonBody.get("startStationId").getAsString();
+        String destStationId = jsonBody.get("destStationId").getAsString();
+        String passengerId = jsonBody.get("passengerId").getAsString();
+        String type = jsonBody.get("type").getAsString();
+
+        if (type.equals("Passenger")) {
+            return new BulkItem(passengerId, tc -> tc.createPassenger(startStationId, destStationId, passengerId));
+        } else if (type.equals("Mechanic")) {
+            return new BulkItem(passengerId,
+                    tc -> tc.createPassenger(startStationId, destStationId, passengerId, true));
+        } else {
+            throw new UNSWException("Invalid type: " + type, "unknown", 400);
+        }
+    }
+
+    /**
+     * Reads an item from the JSON of one create.
+     */
+    @FunctionalInterface
+    private interface ItemReader {
+        BulkItem read(JsonObject jsonBody) throws Exception;
+    }
+
+    /**
+     * Reads the items of a bulk create one at a time as they are needed, from a JSON array or from JSON objects
+     * one after another (NDJSON). An item that can't be read is still returned, and fails when created, so the
+     * rest can go ahead.
+     */
+    private static final class JsonItems implements Iterator<BulkItem> {
+        private final JsonReader reader;
+        private final ItemReader itemReader;
+        private boolean started = false;
+        private boolean inArray = false;
+
+        JsonItems(JsonReader reader, ItemReader itemReader) {
+            this.reader = reader;
+            this.itemReader = itemReader;
+            reader.setLenient(true);
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                if (!started) {
+                    started = true;
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        inArray = true;
+                    }
+                }
+                return inArray ? reader.hasNext() : reader.peek() != JsonToken.END_DOCUMENT;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public BulkItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonElement json = JsonParser.parseReader(reader);
+            try {
+                return itemReader.read(json.getAsJsonObject());
+            } catch (Exception e) {
+                return new BulkItem(null, tc -> {
+                    throw e;
+                });
+            }
+        }
+    }
+
+    /**
+     * Creates everything in the request body under one hold of the lock, responding with how many were created
+     * and why the rest weren't. The whole body is read before the lock is taken, so a slow upload doesn't hold up
+     * anything else.
+     */
+    private static Object createAll(Request request, Response response, ItemReader itemReader) {
+        TrainsController tc = getTrainsController(request);
+        List<BulkItem> items = new ArrayList<>();
+        try {
+            Reader body = new InputStreamReader(request.raw().getInputStream(), StandardCharsets.UTF_8);
+            new JsonItems(new JsonReader(body), itemReader).forEachRemaining(items::add);
+        } catch (IOException err) {
+            return App.handleError(err, response);
+        } catch (RuntimeException e) {
+            // the items can't be read past this one, which fails in its place when created
+            items.add(new BulkItem(null, c -> {
+                throw e;
+            }));
+        }
+        return write(() -> tc.createAll(items.iterator()));
+    }
+
     private static void stationRoutes(Gson gson) {
         /**
          * Get all stations ids
          */
         get("/api/stations", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listStationIds();
-            }
+            return App.snapshot(getTrainsController(request)).listStationIds();
         }, gson::toJson);
 
         /**
-         * Get all StationInfoResponses
+         * Get all StationInfoResponses, or with ?sinceTick=N only those changed after tick N
          */
+        ResponseJsonCache stationJson = new ResponseJsonCache(JSON_CACHE_CAPACITY, gson::toJson);
         get("/api/stations/all", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listStationIds().stream().map(x -> tc.getStationInfo(x)).toList();
+            Snapshot snapshot = App.snapshot(getTrainsController(request));
+            try {
+                Optional<Long> sinceTick = App.getSinceTick(request, response, snapshot);
+                List<StationInfoResponse> infos = sinceTick.isPresent()
+                        ? snapshot.listStationInfosChangedSince(sinceTick.get())
+                        : snapshot.listStationInfos();
+                return App.writeJsonArray(response, stationJson, infos, StationInfoResponse::getStationId);
+            } catch (Exception err) {
+                return gson.toJson(App.handleError(err, response));
             }
-        }, gson::toJson);
+        });
 
         /**
         * Create a new station
         */
         post("/api/station/create", "application/json", (request, response) -> {
             TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                List<String> wantedKeys = Arrays.asList("stationId", "type", "x", "y");
+            return write(() -> {
                 try {
                     JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
-
-                    String stationId = jsonBody.get("stationId").getAsString();
-                    String type = jsonBody.get("type").getAsString();
-                    Double posX = jsonBody.get("x").getAsDouble();
-                    Double posY = jsonBody.get("y").getAsDouble();
-
-                    tc.createStation(stationId, type, posX, posY);
+                    App.stationItem(jsonBody).create(tc);
                     return new JsonObject();
                 } catch (Exception err) {
                     return App.handleError(err, response);
                 }
-            }
+            });
         }, gson::toJson);
+
+        /**
+         * Create many, from a JSON array or from JSON objects one after another (NDJSON), each like the body
+         * of /api/station/create
+         */
+        post("/api/stations/bulk", "application/json",
+                (request, response) -> App.createAll(request, response, App::stationItem), gson::toJson);
     }
 
     private static void trainRoutes(Gson gson) {
@@ -145,43 +409,63 @@ public class App {
          * Get all trainIds
          */
         get("/api/trains", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listTrainIds();
-            }
+            return App.snapshot(getTrainsController(request)).listTrainIds();
         }, gson::toJson);
 
         /**
-         * Get all Responses
+         * Get all Responses, or with ?sinceTick=N only those changed after tick N
          */
+        ResponseJsonCache trainJson = new ResponseJsonCache(JSON_CACHE_CAPACITY, gson::toJson);
         get("/api/trains/all", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listTrainIds().stream().map(x -> tc.getTrainInfo(x)).toList();
+            Snapshot snapshot = App.snapshot(getTrainsController(request));
+            try {
+                Optional<Long> sinceTick = App.getSinceTick(request, response, snapshot);
+                List<TrainInfoResponse> infos = sinceTick.isPresent()
+                        ? snapshot.listTrainInfosChangedSince(sinceTick.get())
+                        : snapshot.listTrainInfos();
+                return App.writeJsonArray(response, trainJson, infos, TrainInfoResponse::getTrainId);
+            } catch (Exception err) {
+                return gson.toJson(App.handleError(err, response));
             }
+        });
+
+        /**
+         * Where a train will be ?ticks=N ticks from now, if nothing it carries changes
+         */
+        get("/api/train/:trainId/position", "application/json", (request, response) -> {
+            TrainsController tc = getTrainsController(request);
+            return write(() -> {
+                try {
+                    long ticks = Long.parseLong(request.queryParams("ticks"));
+                    return tc.predictTrainPosition(request.params(":trainId"), ticks);
+                } catch (NumberFormatException err) {
+                    return App.handleError(new UNSWException("Invalid ticks: " + request.queryParams("ticks"),
+                            "unknown", 400), response);
+                } catch (Exception err) {
+                    return App.handleError(err, response);
+                }
+            });
         }, gson::toJson);
 
         post("/api/train/create", "application/json", (request, response) -> {
             TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                List<String> wantedKeys = Arrays.asList("trainId", "type", "stationId", "route");
+            return write(() -> {
                 try {
                     JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
-
-                    String trainId = jsonBody.get("trainId").getAsString();
-                    String type = jsonBody.get("type").getAsString();
-                    String stationId = jsonBody.get("stationId").getAsString();
-                    List<String> route = StreamSupport.stream(jsonBody.getAsJsonArray("route").spliterator(), false)
-                            .map(JsonElement::getAsString).collect(Collectors.toList());
-
-                    tc.createTrain(trainId, type, stationId, route);
+                    App.trainItem(jsonBody).create(tc);
                     return new JsonObject();
                 } catch (Exception err) {
                     return App.handleError(err, response);
                 }
-            }
+            });
         }, gson::toJson);
+
+        /**
+         * Create many, from a JSON array or from JSON objects one after another (NDJSON), each like the body
+         * of /api/train/create
+         */
+        post("/api/trains/bulk", "application/json",
+                (request, response) -> App.createAll(request, response, App::trainItem), gson::toJson);
     }
 
     private static void trackRoutes(Gson gson) {
@@ -189,124 +473,244 @@ public class App {
          * Get all trackIds
          */
         get("/api/tracks", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listTrackIds();
-            }
+            return App.snapshot(getTrainsController(request)).listTrackIds();
         }, gson::toJson);
 
         /**
-         * Get all TrackInfoResponses
+         * Get all TrackInfoResponses, or with ?sinceTick=N only those changed after tick N
          */
+        ResponseJsonCache trackJson = new ResponseJsonCache(JSON_CACHE_CAPACITY, gson::toJson);
         get("/api/tracks/all", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                return tc.listTrackIds().stream().map(x -> tc.getTrackInfo(x)).toList();
+            Snapshot snapshot = App.snapshot(getTrainsController(request));
+            try {
+                Optional<Long> sinceTick = App.getSinceTick(request, response, snapshot);
+                List<TrackInfoResponse> infos = sinceTick.isPresent()
+                        ? snapshot.listTrackInfosChangedSince(sinceTick.get())
+                        : snapshot.listTrackInfos();
+                return App.writeJsonArray(response, trackJson, infos, TrackInfoResponse::getTrackId);
+            } catch (Exception err) {
+                return gson.toJson(App.handleError(err, response));
             }
-        }, gson::toJson);
+        });
 
         post("/api/track/create", "application/json", (request, response) -> {
             TrainsController tc = getTrainsController(request);
-            synchronized (tc) {
-                List<String> wantedKeys = Arrays.asList("trackId", "fromStationId", "toStationId", "type");
+            return write(() -> {
                 try {
                     JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
-
-                    String trackId = jsonBody.get("trackId").getAsString();
-                    String fromStationId = jsonBody.get("fromStationId").getAsString();
-                    String toStationId = jsonBody.get("toStationId").getAsString();
-                    String type = jsonBody.get("type").getAsString();
-
-                    if (type.equals("NORMAL")) {
-                        tc.createTrack(trackId, fromStationId, toStationId);
-                    } else if (type.equals("UNBROKEN")) {
-                        tc.createTrack(trackId, fromStationId, toStationId, true);
-                    } else {
-                        throw new UNSWException("Invalid type: " + type, "unknown", 400);
-                    }
+                    App.trackItem(jsonBody).create(tc);
                     return new JsonObject();
                 } catch (Exception err) {
                     return App.handleError(err, response);
                 }
-            }
+            });
         }, gson::toJson);
+
+        /**
+         * Create many, from a JSON array or from JSON objects one after another (NDJSON), each like the body
+         * of /api/track/create
+         */
+        post("/api/tracks/bulk", "application/json",
+                (request, response) -> App.createAll(request, response, App::trackItem), gson::toJson);
     };
 
     private static void cargoRoutes(Gson gson) {
         post("/api/cargo/create", "application/json", (request, response) -> {
             TrainsController tc = getTrainsController(request);
-            List<String> wantedKeys = Arrays.asList("startStationId", "destStationId", "cargoId", "weight");
-            synchronized (tc) {
+            return write(() -> {
                 try {
                     JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
-
-                    Optional<Integer> minsTillPerish = jsonBody.get("minsTillPerish").isJsonNull() ? Optional.empty()
-                            : Optional.of(jsonBody.get("minsTillPerish").getAsInt());
-                    String startStationId = jsonBody.get("startStationId").getAsString();
-                    String destStationId = jsonBody.get("destStationId").getAsString();
-                    String cargoId = jsonBody.get("cargoId").getAsString();
-                    int weight = jsonBody.get("weight").getAsInt();
-
-                    if (minsTillPerish.isPresent()) {
-                        tc.createPerishableCargo(startStationId, destStationId, cargoId, weight, minsTillPerish.get());
-                    } else {
-                        tc.createCargo(startStationId, destStationId, cargoId, weight);
-                    }
+                    App.cargoItem(jsonBody).create(tc);
                     return new JsonObject();
                 } catch (Exception err) {
                     return App.handleError(err, response);
                 }
-            }
+            });
         }, gson::toJson);
+
+        /**
+         * Create many, from a JSON array or from JSON objects one after another (NDJSON), each like the body
+         * of /api/cargo/create
+         */
+        post("/api/cargo/bulk", "application/json",
+                (request, response) -> App.createAll(request, response, App::cargoItem), gson::toJson);
     }
 
     private static void passengerRoutes(Gson gson) {
         post("/api/passenger/create", "application/json", (request, response) -> {
             TrainsController tc = getTrainsController(request);
-            List<String> wantedKeys = Arrays.asList("startStationId", "destStationId", "passengerId", "type");
-            synchronized (tc) {
+            return write(() -> {
                 try {
                     JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
-
-                    String startStationId = jsonBody.get("startStationId").getAsString();
-                    String destStationId = jsonBody.get("destStationId").getAsString();
-                    String passengerId = jsonBody.get("passengerId").getAsString();
-                    String type = jsonBody.get("type").getAsString();
-
-                    if (type.equals("Passenger")) {
-                        tc.createPassenger(startStationId, destStationId, passengerId);
-                    } else if (type.equals("Mechanic")) {
-                        tc.createPassenger(startStationId, destStationId, passengerId, true);
-                    } else {
-                        throw new UNSWException("Invalid type: " + type, "unknown", 400);
-                    }
+                    App.passengerItem(jsonBody).create(tc);
                     return new JsonObject();
                 } catch (Exception err) {
                     return App.handleError(err, response);
                 }
-            }
+            });
         }, gson::toJson);
+
+        /**
+         * Create many, from a JSON array or from JSON objects one after another (NDJSON), each like the body
+         * of /api/passenger/create
+         */
+        post("/api/passengers/bulk", "application/json",
+                (request, response) -> App.createAll(request, response, App::passengerItem), gson::toJson);
     }
 
     private static void miscRoutes(Gson gson) {
+        /**
+         * Simulate and respond once done. Runs as a job like the ones below, so other requests get a turn while
+         * it runs.
+         */
         post("/api/simulate", "application/json", (request, response) -> {
-            TrainsController tc = getTrainsController(request);
             List<String> wantedKeys = Arrays.asList("length");
-            synchronized (tc) {
-                try {
-                    JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
-                    App.validateWantedKeys(jsonBody, wantedKeys);
+            try {
+                JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
+                App.validateWantedKeys(jsonBody, wantedKeys);
+
+                int length = jsonBody.get("length").getAsInt();
+                SimulationJob job = JOBS.submit(length);
+                job.await();
+                if (job.getStatus() == SimulationJob.Status.FAILED) {
+                    throw new Exception(job.getError());
+                }
+                return new JsonObject();
+            } catch (Exception err) {
+                return App.handleError(err, response);
+            }
+        }, gson::toJson);
 
-                    int length = jsonBody.get("length").getAsInt();
-                    tc.simulate(length);
-                    return new JsonObject();
-                } catch (Exception err) {
-                    return App.handleError(err, response);
+        /**
+         * Start simulating in the background, responding with the job's progress
+         */
+        post("/api/simulate/jobs", "application/json", (request, response) -> {
+            List<String> wantedKeys = Arrays.asList("length");
+            try {
+                JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
+                App.validateWantedKeys(jsonBody, wantedKeys);
+
+                int length = jsonBody.get("length").getAsInt();
+                return jobInfo(JOBS.submit(length));
+            } catch (Exception err) {
+                return App.handleError(err, response);
+            }
+        }, gson::toJson);
+
+        /**
+         * Get a simulation job's progress
+         */
+        get("/api/simulate/jobs/:jobId", "application/json", (request, response) -> {
+            try {
+                return jobInfo(getJob(request.params(":jobId")));
+            } catch (Exception err) {
+                return App.handleError(err, response);
+            }
+        }, gson::toJson);
+
+        /**
+         * Stop a simulation job after the slice of ticks it is on
+         */
+        post("/api/simulate/jobs/:jobId/cancel", "application/json", (request, response) -> {
+            try {
+                SimulationJob job = getJob(request.params(":jobId"));
+                job.cancel();
+                return jobInfo(job);
+            } catch (Exception err) {
+                return App.handleError(err, response);
+            }
+        }, gson::toJson);
+    }
+
+    private static void eventRoutes(Gson gson) {
+        /**
+         * Stream what changes with each tick as server-sent events, one "tick" event per batch of changes. A
+         * "resync" event means changes were missed (or none have been seen yet) and the full state should be
+         * fetched again.
+         */
+        get("/api/events", (request, response) -> {
+            response.type("text/event-stream");
+            response.header("Cache-Control", "no-cache");
+            HttpServletResponse raw = response.raw();
+            try (DeltaStream.Subscription subscription = DELTAS.subscribe()) {
+                Writer out = new OutputStreamWriter(raw.getOutputStream(), StandardCharsets.UTF_8);
+                while (true) {
+                    DeltaStream.Batch batch = subscription.poll(KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+                    if (batch == null) {
+                        out.write(": keepalive\n\n");
+                    } else {
+                        out.write("event: " + (batch.isResync() ? "resync" : "tick") + "\n");
+                        out.write("id: " + batch.getTick() + "\n");
+                        out.write("data: " + gson.toJson(batch) + "\n\n");
+                    }
+                    out.flush();
                 }
+            } catch (IOException e) {
+                // the client went away
             }
+            return "";
+        });
+    }
+
+    private static void adminRoutes(Gson gson) {
+        /**
+         * Get the level a logger logs at, e.g. ?logger=unsw.stations, or the root logger's by default
+         */
+        get("/api/admin/log-level", "application/json", (request, response) -> {
+            String name = Optional.ofNullable(request.queryParams("logger")).orElse(Logger.ROOT_LOGGER_NAME);
+            return logLevel(name);
         }, gson::toJson);
+
+        /**
+         * Change the level a logger logs at, taking effect straight away
+         */
+        post("/api/admin/log-level", "application/json", (request, response) -> {
+            List<String> wantedKeys = Arrays.asList("level");
+            try {
+                JsonObject jsonBody = JsonParser.parseString(request.body()).getAsJsonObject();
+                App.validateWantedKeys(jsonBody, wantedKeys);
+
+                String name = jsonBody.has("logger") ? jsonBody.get("logger").getAsString() : Logger.ROOT_LOGGER_NAME;
+                String level = jsonBody.get("level").getAsString();
+                Level parsed = Level.toLevel(level, null);
+                if (parsed == null) {
+                    throw new UNSWException("Invalid level: " + level, "unknown", 400);
+                }
+                ((Logger) LoggerFactory.getLogger(name)).setLevel(parsed);
+                return logLevel(name);
+            } catch (Exception err) {
+                return App.handleError(err, response);
+            }
+        }, gson::toJson);
+    }
+
+    private static JsonObject logLevel(String name) {
+        Logger logger = (Logger) LoggerFactory.getLogger(name);
+        JsonObject info = new JsonObject();
+        info.addProperty("logger", logger.getName());
+        info.addProperty("level", logger.getEffectiveLevel().toString());
+        return info;
+    }
+
+    private static SimulationJob getJob(String jobId) throws UNSWException {
+        SimulationJob job = JOBS.get(jobId);
+        if (job == null) {
+            throw new UNSWException("No such job: " + jobId, "unknown", 404);
+        }
+        return job;
+    }
+
+    private static JsonObject jobInfo(SimulationJob job) {
+        JsonObject info = new JsonObject();
+        info.addProperty("jobId", job.getJobId());
+        info.addProperty("status", job.getStatus().name());
+        info.addProperty("length", job.getLength());
+        info.addProperty("ticksDone", job.getTicksDone());
+        info.addProperty("ticksPerSecond", job.getTicksPerSecond());
+        info.addProperty("etaSeconds", job.getEtaSeconds());
+        if (job.getError() != null) {
+            info.addProperty("error", job.getError());
+        }
+        return info;
     }
 }
@@ -3,8 +3,8 @@ package unsw.loads;
 import unsw.utils.Position;
 
 public class Cargo extends Load {
-    public Cargo(String loadId, String destinationId, double weight, Position currentPosition) {
-        super(loadId, destinationId, weight, currentPosition);
+    public Cargo(String loadId, String destinationId, int destinationHandle, double weight, Position currentPosition) {
+        super(loadId, destinationId, destinationHandle, weight, currentPosition);
     }
 
     @Override
@@ -5,16 +5,18 @@ import unsw.utils.Position;
 public abstract class Load {
     private String loadId;
     private String destinationId;
+    private int destinationHandle;
     private double weight;
     private Position currentPosition;
 
-    public Load(String loadId, String destinationId, double weight, Position currentPosition) {
+    public Load(String loadId, String destinationId, int destinationHandle, double weight, Position currentPosition) {
         if (weight <= 0) {
             throw new IllegalArgumentException("Weight must be more than 0");
         }
 
         this.loadId = loadId;
         this.destinationId = destinationId;
+        this.destinationHandle = destinationHandle;
         this.weight = weight;
         this.currentPosition = currentPosition;
     }
@@ -27,6 +29,13 @@ public abstract class Load {
         return destinationId;
     }
 
+    /**
+     * @return the station handle of the load's destination.
+     */
+    public int getDestinationHandle() {
+        return destinationHandle;
+    }
+
     public double getWeight() {
         return weight;
     }
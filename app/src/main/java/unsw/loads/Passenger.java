@@ -5,8 +5,8 @@ import unsw.utils.Position;
 public class Passenger extends Load {
     private static final double PASSENGER_WEIGHT = 70;
 
-    public Passenger(String loadId, String destinationId, Position currentPosition) {
-        super(loadId, destinationId, PASSENGER_WEIGHT, currentPosition);
+    public Passenger(String loadId, String destinationId, int destinationHandle, Position currentPosition) {
+        super(loadId, destinationId, destinationHandle, PASSENGER_WEIGHT, currentPosition);
     }
 
     @Override
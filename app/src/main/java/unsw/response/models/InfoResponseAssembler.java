@@ -29,6 +29,16 @@ public class InfoResponseAssembler {
         for (Train train : station.getTrains()) {
             trainInfos.add(toTrainInfoResponse(train));
         }
+        return toStationInfoResponse(station, trainInfos);
+    }
+
+    /**
+     * Assembles a station's response around already assembled responses of the trains at it.
+     */
+    public static StationInfoResponse toStationInfoResponse(Station station, List<TrainInfoResponse> trainInfos) {
+        if (station == null) {
+            throw new IllegalArgumentException("No such station.");
+        }
         List<LoadInfoResponse> loadInfos = new ArrayList<>();
         for (Load load : station.getLoads()) {
             loadInfos.add(new LoadInfoResponse(load.getLoad(), load.getType()));
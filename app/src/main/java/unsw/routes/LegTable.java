@@ -0,0 +1,54 @@
+package unsw.routes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import unsw.stations.Station;
+import unsw.utils.IdTable;
+
+/**
+ * Every leg the routes use, by the stations at either end, so trains running between the same two stations share
+ * one. Legs are only added, and can be looked up while the parallel engine is moving trains.
+ */
+public class LegTable {
+    private final IdTable<Station> stations;
+    private final Map<Long, RouteLeg> legs = new ConcurrentHashMap<>();
+
+    public LegTable(IdTable<Station> stations) {
+        this.stations = stations;
+    }
+
+    /**
+     * @return the leg from one station to the other, worked out the first time it is asked for.
+     * @throws IllegalArgumentException if either station doesn't exist yet.
+     */
+    public RouteLeg get(int fromHandle, int toHandle) {
+        long key = ((long) fromHandle << 32) | (toHandle & 0xFFFFFFFFL);
+        RouteLeg leg = legs.get(key);
+        if (leg == null) {
+            Station from = stations.get(fromHandle);
+            Station to = stations.get(toHandle);
+            if (from == null || to == null) {
+                throw new IllegalArgumentException("Route leg has no station at one end: " + stations.idOf(fromHandle)
+                        + " -> " + stations.idOf(toHandle));
+            }
+            leg = legs.computeIfAbsent(key, k -> new RouteLeg(fromHandle, from.getPosition(), toHandle,
+                    to.getPosition()));
+        }
+        return leg;
+    }
+
+    /**
+     * @return the leg from one station to the other, or null if either station doesn't exist yet.
+     */
+    public RouteLeg find(int fromHandle, int toHandle) {
+        if (stations.get(fromHandle) == null || stations.get(toHandle) == null) {
+            return null;
+        }
+        return get(fromHandle, toHandle);
+    }
+
+    public int size() {
+        return legs.size();
+    }
+}
@@ -1,15 +1,31 @@
 package unsw.routes;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import unsw.tracks.Track;
+import unsw.tracks.TrackGraph;
+import unsw.utils.IdTable;
 
 public class Route {
     private final List<String> stations;
+    private final int[] stationHandles;
     private final RouteType type;
+    // Built once so finding a station on the route costs the same however long it is. The index into the route is
+    // kept by handle in a small open-addressed table sized by the route rather than the network, so that every
+    // train having its own route doesn't cost memory in proportion to the number of stations.
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final int[] slotHandles;
+    private final int[] slotIndexes;
+    private final int slotShift;
+    // The leg leaving each stop in either direction, shared through the leg table with every other route using it.
+    // A leg whose stations don't exist yet is worked out when it is first travelled.
+    private final LegTable legTable;
+    private final RouteLeg[] forwardLegs;
+    private final RouteLeg[] backwardLegs;
 
-    public Route(List<String> stations, RouteType type) {
+    public Route(List<String> stations, RouteType type, IdTable<?> stationIds, LegTable legTable) {
         if (stations == null || stations.isEmpty()) {
             throw new IllegalArgumentException("Stations list must not be null or empty");
         }
@@ -25,7 +41,33 @@ public class Route {
         //add more conditions in the future
 
         this.stations = List.copyOf(stations);
+        this.stationHandles = new int[stations.size()];
+        for (int i = 0; i < stationHandles.length; i++) {
+            stationHandles[i] = stationIds.intern(stations.get(i));
+            indexById.putIfAbsent(stations.get(i), i);
+        }
+        // at most half full, so a lookup finds the handle or an empty slot after a probe or two
+        int slots = Integer.highestOneBit(stationHandles.length * 2 - 1) << 1;
+        this.slotHandles = new int[slots];
+        this.slotIndexes = new int[slots];
+        this.slotShift = Integer.numberOfLeadingZeros(slots) + 1;
+        Arrays.fill(slotHandles, IdTable.NONE);
+        // a station listed twice is found at its first stop, as indexOf did
+        for (int i = 0; i < stationHandles.length; i++) {
+            int slot = slotOf(stationHandles[i]);
+            if (slotHandles[slot] == IdTable.NONE) {
+                slotHandles[slot] = stationHandles[i];
+                slotIndexes[slot] = i;
+            }
+        }
         this.type = type;
+        this.legTable = legTable;
+        this.forwardLegs = new RouteLeg[stationHandles.length];
+        this.backwardLegs = new RouteLeg[stationHandles.length];
+        for (int i = 0; i < stationHandles.length; i++) {
+            forwardLegs[i] = legTable.find(stationHandles[i], stationHandles[nextIndex(i, true)]);
+            backwardLegs[i] = legTable.find(stationHandles[i], stationHandles[nextIndex(i, false)]);
+        }
     }
 
     public List<String> getStations() {
@@ -44,34 +86,139 @@ public class Route {
         return type == RouteType.LINEAR;
     }
 
+    public int getFirstStationHandle() {
+        return stationHandles[0];
+    }
+
+    public int getLastStationHandle() {
+        return stationHandles[stationHandles.length - 1];
+    }
+
+    /**
+     * @return true if the station with the given handle is on this route.
+     */
+    public boolean visits(int stationHandle) {
+        return indexOf(stationHandle) >= 0;
+    }
+
     public String getNextStation(String currentStationId, boolean forward) {
-        int index = stations.indexOf(currentStationId);
+        return stations.get(nextIndex(indexById.getOrDefault(currentStationId, -1), forward));
+    }
+
+    public int getNextStationHandle(int currentStationHandle, boolean forward) {
+        return stationHandles[nextIndex(indexOf(currentStationHandle), forward)];
+    }
+
+    /**
+     * @return the handles of the stations the route stops at after the given station, in the order a train
+     *         heading in the given direction reaches them, over one full trip round the route.
+     */
+    public int[] upcomingStops(int stationHandle, boolean forward) {
+        int size = stationHandles.length;
+        int[] stops = new int[isLinear() ? 2 * (size - 1) : size];
+        int index = indexOf(stationHandle);
+        for (int i = 0; i < stops.length; i++) {
+            index = nextIndex(index, forward);
+            if (isLinear() && (index == 0 || index == size - 1)) {
+                forward = index == 0;
+            }
+            stops[i] = stationHandles[index];
+        }
+        return stops;
+    }
+
+    /**
+     * @return the leg a train leaving the given station in the given direction travels along.
+     */
+    public RouteLeg getLeg(int stationHandle, boolean forward) {
+        int index = indexOf(stationHandle);
+        RouteLeg[] legs = forward ? forwardLegs : backwardLegs;
+        RouteLeg leg = legs[index];
+        if (leg == null) {
+            leg = legTable.get(stationHandles[index], stationHandles[nextIndex(index, forward)]);
+            legs[index] = leg;
+        }
+        return leg;
+    }
+
+    /**
+     * @return the legs travelled after leaving the given station in the given direction, in order, over one full
+     *         trip round the route.
+     */
+    public RouteLeg[] legsOfTrip(int stationHandle, boolean forward) {
+        RouteLeg[] legs = new RouteLeg[isLinear() ? 2 * (stationHandles.length - 1) : stationHandles.length];
+        int from = stationHandle;
+        for (int i = 0; i < legs.length; i++) {
+            legs[i] = getLeg(from, forward);
+            from = legs[i].getToHandle();
+            forward = directionOnArrival(from, forward);
+        }
+        return legs;
+    }
+
+    /**
+     * @return the direction a train heading the given way is going once it arrives at the given station, turning
+     *         round at the ends of a linear route.
+     */
+    public boolean directionOnArrival(int stationHandle, boolean forward) {
+        if (isLinear()) {
+            if (stationHandle == getFirstStationHandle() && !forward) {
+                return true;
+            } else if (stationHandle == getLastStationHandle() && forward) {
+                return false;
+            }
+        }
+        return forward;
+    }
+
+    private int indexOf(int stationHandle) {
+        if (stationHandle < 0) {
+            return -1;
+        }
+        int slot = slotOf(stationHandle);
+        return slotHandles[slot] == stationHandle ? slotIndexes[slot] : -1;
+    }
+
+    /**
+     * @return the slot holding the handle, or the empty slot it would go in.
+     */
+    private int slotOf(int stationHandle) {
+        int mask = slotHandles.length - 1;
+        // handles are dense, so spread them over the slots before probing
+        int slot = (stationHandle * 0x9E3779B9) >>> slotShift;
+        while (slotHandles[slot] != IdTable.NONE && slotHandles[slot] != stationHandle) {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    private int nextIndex(int index, boolean forward) {
+        int size = stationHandles.length;
         if (isLinear()) {
             if (forward) {
-                if (index == stations.size() - 1) {
-                    return stations.get(index - 1);
+                if (index == size - 1) {
+                    return index - 1;
                 } else {
-                    return stations.get(index + 1);
+                    return index + 1;
                 }
             } else {
                 if (index == 0) {
-                    return stations.get(index + 1);
+                    return index + 1;
                 } else {
-                    return stations.get(index - 1);
+                    return index - 1;
                 }
             }
         } else if (isCyclical()) {
             if (forward) {
-                return stations.get((index + 1) % stations.size());
+                return (index + 1) % size;
             } else {
-                int previousIndex = (index - 1 + stations.size()) & stations.size();
-                return stations.get(previousIndex);
+                return (index - 1 + size) % size;
             }
         }
         throw new IllegalStateException("Unknown route type");
     }
 
-    public static RouteType determineRouteType(String trainType, List<String> stationIds, Map<String, Track> tracks) {
+    public static RouteType determineRouteType(String trainType, List<String> stationIds, TrackGraph tracks) {
         if (stationIds == null || stationIds.isEmpty()) {
             throw new IllegalArgumentException("Stations list must not be null or empty");
         }
@@ -83,13 +230,7 @@ public class Route {
             String first = stationIds.get(0);
             String last = stationIds.get(stationIds.size() - 1);
             // Check if a track exists between the first and last stations (in either direction)
-            for (Track track : tracks.values()) {
-                if ((track.getFromStationId().equals(first) && track.getToStationId().equals(last))
-                        || (track.getFromStationId().equals(last) && track.getToStationId().equals(first))) {
-                    isCyclical = true;
-                    break;
-                }
-            }
+            isCyclical = tracks.connects(first, last);
         }
         if (!"BulletTrain".equals(trainType)) {
             // For non-BulletTrains, a cyclical route (i.e. when isCyclical is true) is invalid.
@@ -0,0 +1,186 @@
+package unsw.routes;
+
+import unsw.utils.FixedPoint;
+import unsw.utils.Position;
+
+/**
+ * The stretch between two stations, in one direction: where it starts, which way it heads and how long it is.
+ * Stations stay where they were created, so each leg is worked out once and shared by every route using it.
+ */
+public final class RouteLeg {
+    private static final double UNIT_SCALE = 0x1p62;
+
+    private final int fromHandle;
+    private final int toHandle;
+    private final double fromX;
+    private final double fromY;
+    private final double length;
+    private final double unitX;
+    private final double unitY;
+    // the same in micro-units, for the fixed-point mode
+    private final long fromXMicros;
+    private final long fromYMicros;
+    private final long lengthMicros;
+    // the unit direction scaled by 2^62, so a point along the leg is whole-number arithmetic
+    private final long unitXScaled;
+    private final long unitYScaled;
+
+    RouteLeg(int fromHandle, Position from, int toHandle, Position to) {
+        this.fromHandle = fromHandle;
+        this.toHandle = toHandle;
+        this.fromX = from.getX();
+        this.fromY = from.getY();
+        double dx = to.getX() - fromX;
+        double dy = to.getY() - fromY;
+        this.length = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
+        this.unitX = length > 0 ? dx / length : 0;
+        this.unitY = length > 0 ? dy / length : 0;
+
+        this.fromXMicros = FixedPoint.toMicros(fromX);
+        this.fromYMicros = FixedPoint.toMicros(fromY);
+        long dxMicros = FixedPoint.toMicros(to.getX()) - fromXMicros;
+        long dyMicros = FixedPoint.toMicros(to.getY()) - fromYMicros;
+        double lengthInMicros = Math.sqrt((double) dxMicros * dxMicros + (double) dyMicros * dyMicros);
+        this.lengthMicros = Math.round(lengthInMicros);
+        this.unitXScaled = lengthMicros > 0 ? Math.round(dxMicros / lengthInMicros * UNIT_SCALE) : 0;
+        this.unitYScaled = lengthMicros > 0 ? Math.round(dyMicros / lengthInMicros * UNIT_SCALE) : 0;
+    }
+
+    public int getFromHandle() {
+        return fromHandle;
+    }
+
+    public int getToHandle() {
+        return toHandle;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    public double getFromX() {
+        return fromX;
+    }
+
+    public double getFromY() {
+        return fromY;
+    }
+
+    public double getUnitX() {
+        return unitX;
+    }
+
+    public double getUnitY() {
+        return unitY;
+    }
+
+    public long getLengthMicros() {
+        return lengthMicros;
+    }
+
+    public long getFromXMicros() {
+        return fromXMicros;
+    }
+
+    public long getFromYMicros() {
+        return fromYMicros;
+    }
+
+    public long getUnitXScaled() {
+        return unitXScaled;
+    }
+
+    public long getUnitYScaled() {
+        return unitYScaled;
+    }
+
+    /**
+     * @return how far along the leg the given point is, measured in the leg's direction.
+     */
+    public double progressOf(double x, double y) {
+        return (x - fromX) * unitX + (y - fromY) * unitY;
+    }
+
+    public double xAt(double progress) {
+        return fromX + unitX * progress;
+    }
+
+    public double yAt(double progress) {
+        return fromY + unitY * progress;
+    }
+
+    /**
+     * @return the point the given number of micro-units along the leg, rounded to whole micro-units.
+     */
+    public long xAtMicros(long progress) {
+        return fromXMicros + offsetMicros(unitXScaled, progress);
+    }
+
+    public long yAtMicros(long progress) {
+        return fromYMicros + offsetMicros(unitYScaled, progress);
+    }
+
+    /**
+     * @return the given number of micro-units along one component of a scaled unit direction, rounded to whole
+     *         micro-units. The product is taken to 128 bits and shifted back down, so it is exact however long
+     *         the leg.
+     */
+    public static long offsetMicros(long unitScaled, long progress) {
+        long high = Math.multiplyHigh(unitScaled, progress);
+        long low = unitScaled * progress;
+        // the top two bits of the low half are the last of the whole part, the next one rounds
+        return (high << 2) + (low >>> 62) + ((low >>> 61) & 1);
+    }
+
+    /**
+     * @return the fixed-point counterpart of ticksToArrive, with every distance in micro-units. A train arrives
+     *         once a step covers what is left less the tolerance, so this is exact.
+     */
+    public long ticksToArriveMicros(long progress, long step, long tolerance) {
+        if (step <= 0) {
+            return Long.MAX_VALUE / 2;
+        }
+        // the fewest steps covering what is left, rounding up
+        return Math.max(1, -Math.floorDiv(progress + tolerance - lengthMicros, step));
+    }
+
+    /**
+     * @return the number of ticks a train moving at the given speed takes to reach the end of the leg from the
+     *         given progress. The same arithmetic as advanceTowards is stepped through a tick at a time, including
+     *         reading the progress back off the rounded position after each step, so the tick is exactly the one
+     *         the stepping engines arrive on.
+     */
+    public long ticksToArrive(double progress, double speed, double tolerance) {
+        if (speed <= 0) {
+            return Long.MAX_VALUE / 2;
+        }
+        long ticks = 1;
+        while (speed < length - progress - tolerance) {
+            progress = step(progress, speed);
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * @return where a train moving at the given speed from the given progress is after the given number of ticks
+     *         short of arriving, to the bit where advanceTowards would put it.
+     */
+    public Position positionAfter(double progress, double speed, long moves) {
+        if (moves <= 0) {
+            return new Position(xAt(progress), yAt(progress));
+        }
+        for (long i = 1; i < moves; i++) {
+            progress = step(progress, speed);
+        }
+        return new Position(xAt(progress + speed), yAt(progress + speed));
+    }
+
+    /**
+     * @return the progress after one step, as advanceTowards next reads it off the position it moved the train to.
+     */
+    private double step(double progress, double speed) {
+        double next = progress + speed;
+        return progressOf(xAt(next), yAt(next));
+    }
+}
@@ -12,8 +12,8 @@ public class CargoStation extends Station {
     private static final int MAX_TRAINS = 4;
     private List<Cargo> cargos;
 
-    public CargoStation(String stationId, Position position) {
-        super(stationId, position);
+    public CargoStation(String stationId, int handle, Position position) {
+        super(stationId, handle, position);
         this.cargos = new ArrayList<>();
     }
 
@@ -14,8 +14,8 @@ public class CentralStation extends Station {
     private List<Passenger> passengers;
     private List<Cargo> cargos;
 
-    public CentralStation(String stationId, Position position) {
-        super(stationId, position);
+    public CentralStation(String stationId, int handle, Position position) {
+        super(stationId, handle, position);
         this.passengers = new ArrayList<>();
         this.cargos = new ArrayList<>();
     }
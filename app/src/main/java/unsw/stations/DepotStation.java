@@ -6,8 +6,8 @@ import unsw.trains.Train;
 public class DepotStation extends Station {
     private static final int MAX_TRAINS = 8;
 
-    public DepotStation(String stationId, Position position) {
-        super(stationId, position);
+    public DepotStation(String stationId, int handle, Position position) {
+        super(stationId, handle, position);
     }
 
     public int getMaxTrains() {
@@ -0,0 +1,61 @@
+package unsw.stations;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import unsw.loads.Load;
+import unsw.trains.Train;
+
+/**
+ * The order a station offers its waiting loads to a train. Each load bound for a station on the train's route is
+ * offered once and taken if the train can carry it then, so the order decides what goes when not everything fits.
+ */
+public enum LoadingPolicy {
+    /**
+     * By load ID, whatever the destination.
+     */
+    LEXICOGRAPHIC {
+        @Override
+        Iterator<Load> offer(WaitingLoads waiting, Train train, IntPredicate destinations) {
+            return waiting.inLoadOrder(destinations);
+        }
+    },
+    /**
+     * Heaviest first, then by load ID, so each load taken is the heaviest that still fits and the train leaves as
+     * full as it can be made, one load at a time.
+     */
+    BEST_FIT {
+        @Override
+        Iterator<Load> offer(WaitingLoads waiting, Train train, IntPredicate destinations) {
+            return waiting.inWeightOrder(destinations);
+        }
+    },
+    /**
+     * Loads for the train's next stop first, then for the stop after that, and so on, each stop's loads by load ID.
+     * Loads going to the same place travel together, and those delivered soonest free up room soonest.
+     */
+    DESTINATION_CLUSTERED {
+        @Override
+        Iterator<Load> offer(WaitingLoads waiting, Train train, IntPredicate destinations) {
+            int[] stops = train.getRoute().upcomingStops(train.getCurrentLocationHandle(), train.isMovingForward());
+            BitSet seen = new BitSet();
+            List<Load> loads = new ArrayList<>();
+            for (int stop : stops) {
+                if (!seen.get(stop) && destinations.test(stop)) {
+                    seen.set(stop);
+                    loads.addAll(waiting.boundFor(stop));
+                }
+            }
+            return waiting.offering(loads);
+        }
+    };
+
+    /**
+     * Goes through the waiting loads bound for the given destinations in the order they are offered to the train.
+     * The iterator's remove takes the load off the station.
+     */
+    abstract Iterator<Load> offer(WaitingLoads waiting, Train train, IntPredicate destinations);
+}
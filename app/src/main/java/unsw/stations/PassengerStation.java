@@ -13,8 +13,8 @@ public class PassengerStation extends Station {
     private static final int MAX_TRAINS = 2;
     private List<Passenger> passengers;
 
-    public PassengerStation(String stationId, Position positionId) {
-        super(stationId, positionId);
+    public PassengerStation(String stationId, int handle, Position positionId) {
+        super(stationId, handle, positionId);
         this.passengers = new ArrayList<>();
     }
 
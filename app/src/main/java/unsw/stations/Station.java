@@ -6,18 +6,31 @@ import unsw.trains.CargoTrain;
 import unsw.trains.PassengerTrain;
 import unsw.trains.Train;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import unsw.loads.Load;
 import unsw.loads.Passenger;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public abstract class Station {
+    private static final Logger LOG = LoggerFactory.getLogger(Station.class);
+
     private String stationId;
+    private int handle;
     private Position positionId;
     private List<Train> trains = new ArrayList<>();
-    private List<Load> loads = new ArrayList<>();
+    private WaitingLoads loads = new WaitingLoads();
+    private LoadingPolicy loadingPolicy = LoadingPolicy.LEXICOGRAPHIC;
+    // whether the policy was chosen for this station, rather than following the controller's
+    private boolean ownLoadingPolicy = false;
+    private long version = 0;
 
-    public Station(String stationId, Position positionId) {
+    public Station(String stationId, int handle, Position positionId) {
         this.stationId = stationId;
+        this.handle = handle;
         this.positionId = positionId;
     }
 
@@ -28,10 +41,34 @@ public abstract class Station {
             throw new IllegalStateException(getClass().getSimpleName() + " is full. Max = " + getMaxTrains());
         }
         trains.add(train);
+        version++;
     }
 
     public void removeTrain(Train train) {
-        trains.remove(train);
+        if (trains.remove(train)) {
+            version++;
+        }
+    }
+
+    public LoadingPolicy getLoadingPolicy() {
+        return loadingPolicy;
+    }
+
+    /**
+     * Chooses the policy for this station, or with null goes back to following the given default.
+     */
+    public void setLoadingPolicy(LoadingPolicy policy, LoadingPolicy defaultPolicy) {
+        ownLoadingPolicy = policy != null;
+        loadingPolicy = ownLoadingPolicy ? policy : defaultPolicy;
+    }
+
+    /**
+     * Follows the given default unless a policy was chosen for this station.
+     */
+    public void setDefaultLoadingPolicy(LoadingPolicy defaultPolicy) {
+        if (!ownLoadingPolicy) {
+            loadingPolicy = defaultPolicy;
+        }
     }
 
     public List<Train> getTrains() {
@@ -46,6 +83,10 @@ public abstract class Station {
         this.stationId = stationId;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
     public Position getPosition() {
         return positionId;
     }
@@ -54,14 +95,47 @@ public abstract class Station {
         this.positionId = positionId;
     }
 
-    public List<Load> getLoads() {
-        return loads;
+    /**
+     * @return the loads waiting at the station, in the order they arrived.
+     */
+    public Collection<Load> getLoads() {
+        return loads.inArrivalOrder();
+    }
+
+    /**
+     * @return a counter that goes up whenever the trains or loads at the station change.
+     */
+    public long getVersion() {
+        return version;
     }
 
     public void addLoad(Load load) {
         loads.add(load);
-        System.out.println("DEBUG: Station " + stationId + " added load: " + load.getLoad() + " (type: "
-                + load.getType() + "). Total loads now: " + loads.size());
+        version++;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Station {} added load: {} (type: {}). Total loads now: {}", stationId, load.getLoad(),
+                    load.getType(), loads.size());
+        }
+    }
+
+    /**
+     * @return true if calling unloadTrain/loadTrain here would change anything for this train, i.e. it is carrying
+     *         a load destined for this station or a waiting load here would pass the loading checks.
+     */
+    public boolean hasTransferWork(Train train) {
+        if (train.carriesLoadFor(handle)) {
+            return true;
+        }
+        if (loads.size() == 0) {
+            return false;
+        }
+        Iterator<Load> waiting = loads.inLoadOrder(destination -> trainWillVisitDestination(train, destination));
+        while (waiting.hasNext()) {
+            if (trainCanAcceptLoad(train, waiting.next())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public abstract boolean canHoldPassengers();
@@ -69,48 +143,46 @@ public abstract class Station {
     public abstract boolean canHoldCargo();
 
     public void unloadTrain(Train train) {
+        // Most calls have nothing to drop off, so only gather the loads once there is one
+        if (!train.carriesLoadFor(handle)) {
+            return;
+        }
         // Remove from the train any loads whose destination is this station
         List<Load> toRemove = new ArrayList<>();
         for (Load l : train.getLoads()) {
-            if (this.stationId.equals(l.getDestination())) {
+            if (l.getDestinationHandle() == handle) {
                 toRemove.add(l);
             }
         }
 
-        if (!toRemove.isEmpty()) {
-            System.out.println("DEBUG: Unloading cargo at " + stationId + " => " + toRemove.size() + " items.");
+        if (!toRemove.isEmpty() && LOG.isDebugEnabled()) {
+            LOG.debug("Unloading {} loads from train {} at {}", toRemove.size(), train.getTrainId(), stationId);
         }
 
         // Actually remove them
-        train.getLoads().removeAll(toRemove);
-        System.out.println("DEBUG: trainCargo now has " + train.getLoads().size() + " cargo items after unloading.");
-
+        train.removeLoads(toRemove);
     }
 
     public void loadTrain(Train train) {
+        if (loads.size() == 0) {
+            return;
+        }
         // Move loads from the station to the train if capacity and route checks pass
-        // Also check that the train’s route eventually visits the load’s destination.
-        // We'll do a stable sort for the load IDs so we handle them in lex order
-        List<Load> sortedLoads = new ArrayList<>(this.loads);
-        sortedLoads.sort((l1, l2) -> l1.getLoad().compareTo(l2.getLoad()));
-
-        for (Load ld : sortedLoads) {
-            if (!trainWillVisitDestination(train, ld.getDestination())) {
-                // if the train won't pass the load's destination, skip
-                System.out.println(
-                        "DEBUG: Skipping cargo " + ld.getLoad() + " - Train does not reach " + ld.getDestination());
-                continue;
-            }
+        // Only loads bound for a station on the train's route are looked at, in the order the policy offers them.
+        Iterator<Load> waiting = loadingPolicy.offer(loads, train,
+                destination -> trainWillVisitDestination(train, destination));
+        while (waiting.hasNext()) {
+            Load ld = waiting.next();
             if (!trainCanAcceptLoad(train, ld)) {
                 // skip if capacity won't permit
-                System.out.println(
-                        "DEBUG: Skipping cargo " + ld.getLoad() + " - Train cannot accept due to weight limit.");
+                LOG.trace("Skipping load {} - Train cannot accept due to weight limit.", ld.getLoad());
                 continue;
             }
             // Passed all checks => transfer from station to train
-            this.loads.remove(ld);
+            waiting.remove();
+            version++;
             train.addLoad(ld);
-            System.out.println("DEBUG: Cargo " + ld.getLoad() + " loaded onto train " + train.getTrainId());
+            LOG.debug("Load {} loaded onto train {}", ld.getLoad(), train.getTrainId());
         }
     }
 
@@ -119,8 +191,8 @@ public abstract class Station {
      * For a linear route, it eventually comes back (like a shuttle).
      * For cyclical, it loops. So if `dest` is in route’s station list, we consider it reachable.
      */
-    private boolean trainWillVisitDestination(Train train, String dest) {
-        return train.getRoute().getStations().contains(dest);
+    private boolean trainWillVisitDestination(Train train, int dest) {
+        return train.getRoute().visits(dest);
     }
 
     /**
@@ -131,54 +203,24 @@ public abstract class Station {
         if (train instanceof PassengerTrain) {
             if (!(load instanceof Passenger))
                 return false;
-            return (getCurrentPassengerWeight(train) + 70 <= 3500);
+            return (train.getPassengerWeight() + 70 <= 3500);
         } else if (train instanceof CargoTrain) {
             if (!(load instanceof unsw.loads.Cargo))
                 return false;
-            double current = getCurrentCargoWeight(train);
+            double current = train.getCargoWeight();
             double toAdd = ((unsw.loads.Cargo) load).getWeight();
             boolean canLoad = (current + toAdd <= 5000);
-            System.out.println("DEBUG: Checking cargo " + load.getLoad() + " (weight " + toAdd + ")");
-            System.out.println("DEBUG: Train current weight: " + current + " | Max: 5000 | Can load? " + canLoad);
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Checking cargo {} (weight {}) against train weight {} | Max: 5000 | Can load? {}",
+                        load.getLoad(), toAdd, current, canLoad);
+            }
             return canLoad;
         } else if (train instanceof BulletTrain) {
             // bullet can carry passenger or cargo, up to 5000 total.
-            double current = getMixedLoadWeight(train);
+            double current = train.getLoadWeight();
             double extra = (load instanceof Passenger) ? 70 : ((unsw.loads.Cargo) load).getWeight();
             return (current + extra <= 5000);
         }
         return false;
     }
-
-    private double getCurrentPassengerWeight(Train train) {
-        double total = 0;
-        for (Load l : train.getLoads()) {
-            if (l instanceof Passenger) {
-                total += 70;
-            }
-        }
-        return total;
-    }
-
-    private double getCurrentCargoWeight(Train train) {
-        double total = 0;
-        for (Load l : train.getLoads()) {
-            if (l instanceof unsw.loads.Cargo) {
-                total += ((unsw.loads.Cargo) l).getWeight();
-            }
-        }
-        return total;
-    }
-
-    private double getMixedLoadWeight(Train train) {
-        double total = 0;
-        for (Load l : train.getLoads()) {
-            if (l instanceof Passenger) {
-                total += 70;
-            } else if (l instanceof unsw.loads.Cargo) {
-                total += ((unsw.loads.Cargo) l).getWeight();
-            }
-        }
-        return total;
-    }
 }
@@ -1,32 +1,32 @@
 package unsw.stations;
 
-import java.util.Map;
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 
 public class StationFactory {
-    public static Station createStation(String stationId, String type, Position pos) {
+    public static Station createStation(String stationId, int handle, String type, Position pos) {
         switch (type) {
         case "PassengerStation":
-            return new PassengerStation(stationId, pos);
+            return new PassengerStation(stationId, handle, pos);
         case "CargoStation":
-            return new CargoStation(stationId, pos);
+            return new CargoStation(stationId, handle, pos);
         case "CentralStation":
-            return new CentralStation(stationId, pos);
+            return new CentralStation(stationId, handle, pos);
         case "DepotStation":
-            return new DepotStation(stationId, pos);
+            return new DepotStation(stationId, handle, pos);
         default:
             throw new IllegalArgumentException("Invalid station type: " + type);
         }
     }
 
-    public static void validateStationCreation(String stationId, Map<String, Station> stations) {
-        if (stations.containsKey(stationId)) {
+    public static void validateStationCreation(String stationId, IdTable<Station> stations) {
+        if (stations.contains(stationId)) {
             throw new IllegalArgumentException("Station ID already exists: " + stationId);
         }
     }
 
-    public static void validateStationExists(String stationId, Map<String, Station> stations) {
-        if (!stations.containsKey(stationId)) {
+    public static void validateStationExists(String stationId, IdTable<Station> stations) {
+        if (!stations.contains(stationId)) {
             throw new IllegalArgumentException("Station does not exist: " + stationId);
         }
     }
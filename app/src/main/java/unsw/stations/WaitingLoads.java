@@ -0,0 +1,234 @@
+package unsw.stations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import unsw.loads.Load;
+
+/**
+ * The loads waiting at a station. They are listed in the order they arrived, and are also grouped by destination,
+ * each group kept both in order of load ID and heaviest first, so loading a train only goes through the loads bound
+ * for stations on its route, and never has to sort them.
+ */
+class WaitingLoads {
+    private static final Comparator<Waiting> LOAD_ORDER = Comparator.<Waiting, String>comparing(w -> w.load.getLoad())
+            .thenComparingLong(w -> w.arrival);
+    private static final Comparator<Waiting> WEIGHT_ORDER = Comparator
+            .<Waiting>comparingDouble(w -> w.load.getWeight()).reversed().thenComparing(LOAD_ORDER);
+
+    private final Map<Load, Waiting> arrived = new LinkedHashMap<>();
+    private final Map<Integer, NavigableSet<Waiting>> byDestination = new HashMap<>();
+    private final Map<Integer, NavigableSet<Waiting>> byDestinationByWeight = new HashMap<>();
+    private long arrivals = 0;
+
+    /**
+     * A waiting load, numbered by arrival so loads with the same ID keep the order they arrived in.
+     */
+    private static final class Waiting {
+        private final Load load;
+        private final long arrival;
+
+        Waiting(Load load, long arrival) {
+            this.load = load;
+            this.arrival = arrival;
+        }
+    }
+
+    /**
+     * The next load in one destination's group, while going through several groups at once.
+     */
+    private static final class Cursor {
+        private final NavigableSet<Waiting> group;
+        private final Iterator<Waiting> iterator;
+        private Waiting current;
+
+        Cursor(NavigableSet<Waiting> group) {
+            this.group = group;
+            this.iterator = group.iterator();
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            current = iterator.hasNext() ? iterator.next() : null;
+            return current != null;
+        }
+    }
+
+    void add(Load load) {
+        if (arrived.containsKey(load)) {
+            throw new IllegalArgumentException("Load " + load.getLoad() + " is already waiting.");
+        }
+        Waiting waiting = new Waiting(load, arrivals++);
+        arrived.put(load, waiting);
+        byDestination.computeIfAbsent(load.getDestinationHandle(), d -> new TreeSet<>(LOAD_ORDER)).add(waiting);
+        byDestinationByWeight.computeIfAbsent(load.getDestinationHandle(), d -> new TreeSet<>(WEIGHT_ORDER))
+                .add(waiting);
+    }
+
+    /**
+     * Takes the load off the station, if it is waiting here.
+     */
+    void remove(Load load) {
+        Waiting waiting = arrived.remove(load);
+        if (waiting == null) {
+            return;
+        }
+        removeFromGroup(byDestination, waiting);
+        removeFromGroup(byDestinationByWeight, waiting);
+    }
+
+    private static void removeFromGroup(Map<Integer, NavigableSet<Waiting>> groups, Waiting waiting) {
+        int destination = waiting.load.getDestinationHandle();
+        NavigableSet<Waiting> group = groups.get(destination);
+        group.remove(waiting);
+        if (group.isEmpty()) {
+            groups.remove(destination);
+        }
+    }
+
+    int size() {
+        return arrived.size();
+    }
+
+    /**
+     * @return the waiting loads in the order they arrived.
+     */
+    Collection<Load> inArrivalOrder() {
+        return Collections.unmodifiableSet(arrived.keySet());
+    }
+
+    /**
+     * @return the loads bound for the given destination, in order of load ID.
+     */
+    List<Load> boundFor(int destination) {
+        NavigableSet<Waiting> group = byDestination.get(destination);
+        if (group == null) {
+            return List.of();
+        }
+        List<Load> loads = new ArrayList<>(group.size());
+        for (Waiting waiting : group) {
+            loads.add(waiting.load);
+        }
+        return loads;
+    }
+
+    /**
+     * Goes through the given waiting loads in the given order. The iterator's remove takes the load off the station.
+     */
+    Iterator<Load> offering(List<Load> loads) {
+        return new Iterator<>() {
+            private int next = 0;
+            private boolean removable = false;
+
+            @Override
+            public boolean hasNext() {
+                return next < loads.size();
+            }
+
+            @Override
+            public Load next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                removable = true;
+                return loads.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removable = false;
+                WaitingLoads.this.remove(loads.get(next - 1));
+            }
+        };
+    }
+
+    /**
+     * Goes through the loads bound for the given destinations in order of load ID, ties going to whichever arrived
+     * first. The iterator's remove takes the load off the station.
+     */
+    Iterator<Load> inLoadOrder(IntPredicate destinations) {
+        return merged(byDestination, byDestinationByWeight, LOAD_ORDER, destinations);
+    }
+
+    /**
+     * Goes through the loads bound for the given destinations heaviest first, then in order of load ID. The
+     * iterator's remove takes the load off the station.
+     */
+    Iterator<Load> inWeightOrder(IntPredicate destinations) {
+        return merged(byDestinationByWeight, byDestination, WEIGHT_ORDER, destinations);
+    }
+
+    /**
+     * Merges the groups of the given destinations, each already in the given order.
+     * @param others the other index of the same groups, which removing a load also takes it out of.
+     */
+    private Iterator<Load> merged(Map<Integer, NavigableSet<Waiting>> groups,
+            Map<Integer, NavigableSet<Waiting>> others, Comparator<Waiting> order, IntPredicate destinations) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>((a, b) -> order.compare(a.current, b.current));
+        for (Map.Entry<Integer, NavigableSet<Waiting>> group : groups.entrySet()) {
+            if (destinations.test(group.getKey())) {
+                cursors.add(new Cursor(group.getValue()));
+            }
+        }
+        return new Iterator<>() {
+            private Cursor last;
+            private boolean removable = false;
+
+            private void moveOn() {
+                if (last != null) {
+                    if (last.advance()) {
+                        cursors.add(last);
+                    }
+                    last = null;
+                    removable = false;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                moveOn();
+                return !cursors.isEmpty();
+            }
+
+            @Override
+            public Load next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = cursors.poll();
+                removable = true;
+                return last.current.load;
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                removable = false;
+                Waiting waiting = last.current;
+                last.iterator.remove();
+                arrived.remove(waiting.load);
+                if (last.group.isEmpty()) {
+                    groups.remove(waiting.load.getDestinationHandle());
+                }
+                removeFromGroup(others, waiting);
+            }
+        };
+    }
+}
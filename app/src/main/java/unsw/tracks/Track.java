@@ -4,16 +4,18 @@ import unsw.utils.TrackType;
 
 public class Track {
     private String trackId;
+    private int handle;
     private String fromStationId;
     private String toStationId;
     private TrackType type;
     private int durability;
 
-    public Track(String trackId, String fromStationId, String toStationId) {
+    public Track(String trackId, int handle, String fromStationId, String toStationId) {
         if (trackId == null || fromStationId == null || toStationId == null) {
             throw new IllegalArgumentException("Track and station IDs must not be null.");
         }
         this.trackId = trackId;
+        this.handle = handle;
         this.fromStationId = fromStationId;
         this.toStationId = toStationId;
         // For NORMAL tracks, type is always NORMAL and durability is fixed at 10.
@@ -25,6 +27,10 @@ public class Track {
         return trackId;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
     public String getFromStationId() {
         return fromStationId;
     }
@@ -1,19 +1,19 @@
 package unsw.tracks;
 
-import java.util.Map;
 import unsw.stations.Station;
+import unsw.utils.IdTable;
 
 public class TrackFactory {
-    public static Track createTrack(String trackId, String fromStationId, String toStationId) {
-        return new Track(trackId, fromStationId, toStationId);
+    public static Track createTrack(String trackId, int handle, String fromStationId, String toStationId) {
+        return new Track(trackId, handle, fromStationId, toStationId);
     }
 
     public static void validateTrackCreation(String trackId, String fromStationId, String toStationId,
-            Map<String, Track> tracks, Map<String, Station> stations) {
-        if (tracks.containsKey(trackId)) {
+            IdTable<Track> tracks, IdTable<Station> stations) {
+        if (tracks.contains(trackId)) {
             throw new IllegalArgumentException("Track ID already exists: " + trackId);
         }
-        if (!stations.containsKey(fromStationId) || !stations.containsKey(toStationId)) {
+        if (!stations.contains(fromStationId) || !stations.contains(toStationId)) {
             throw new IllegalArgumentException(
                     "One or both station IDs do not exist: " + fromStationId + ", " + toStationId);
         }
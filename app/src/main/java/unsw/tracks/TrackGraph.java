@@ -0,0 +1,79 @@
+package unsw.tracks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import unsw.utils.IdTable;
+
+/**
+ * Which stations are joined by track, kept up to date as tracks are created so that checking whether two stations
+ * are joined doesn't mean going through every track.
+ *
+ * Stations are keyed by handle. Two stations are joined whichever way round the track between them was laid.
+ */
+public class TrackGraph {
+    private final IdTable<?> stationIds;
+    private final Map<Long, List<Track>> byPair = new HashMap<>();
+    private final Map<Integer, Set<Integer>> neighbours = new HashMap<>();
+
+    public TrackGraph(IdTable<?> stationIds) {
+        this.stationIds = stationIds;
+    }
+
+    public void add(Track track) {
+        int from = stationIds.intern(track.getFromStationId());
+        int to = stationIds.intern(track.getToStationId());
+        byPair.computeIfAbsent(pairKey(from, to), k -> new ArrayList<>(1)).add(track);
+        neighbours.computeIfAbsent(from, k -> new LinkedHashSet<>()).add(to);
+        neighbours.computeIfAbsent(to, k -> new LinkedHashSet<>()).add(from);
+    }
+
+    /**
+     * @return the same key for a pair of stations whichever order they are given in.
+     */
+    private static long pairKey(int a, int b) {
+        int low = Math.min(a, b);
+        int high = Math.max(a, b);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return true if there is a track between the two stations, in either direction.
+     */
+    public boolean connects(String stationId, String otherStationId) {
+        return !tracksBetween(stationId, otherStationId).isEmpty();
+    }
+
+    /**
+     * @return the tracks between the two stations, in either direction, in the order they were created.
+     */
+    public List<Track> tracksBetween(String stationId, String otherStationId) {
+        int a = stationIds.find(stationId);
+        int b = stationIds.find(otherStationId);
+        if (a == IdTable.NONE || b == IdTable.NONE) {
+            return List.of();
+        }
+        List<Track> tracks = byPair.get(pairKey(a, b));
+        return tracks != null ? Collections.unmodifiableList(tracks) : List.of();
+    }
+
+    /**
+     * @return the IDs of the stations joined to the station by a track, in the order the tracks were created.
+     */
+    public List<String> neighboursOf(String stationId) {
+        Set<Integer> handles = neighbours.get(stationIds.find(stationId));
+        if (handles == null) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(handles.size());
+        for (int handle : handles) {
+            ids.add(stationIds.idOf(handle));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,33 @@
+package unsw.trains;
+
+/**
+ * One create in a bulk request, e.g. a station to create, as read from the request.
+ */
+public final class BulkItem {
+    /**
+     * Carries out the create against the controller.
+     */
+    @FunctionalInterface
+    public interface Creation {
+        void create(TrainsController controller) throws Exception;
+    }
+
+    private final String id;
+    private final Creation creation;
+
+    /**
+     * @param id the ID of the entity the item creates, for reporting errors.
+     */
+    public BulkItem(String id, Creation creation) {
+        this.id = id;
+        this.creation = creation;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void create(TrainsController controller) throws Exception {
+        creation.create(controller);
+    }
+}
@@ -0,0 +1,65 @@
+package unsw.trains;
+
+import java.util.List;
+
+import unsw.exceptions.UNSWException;
+
+/**
+ * The outcome of a bulk create: how many items were created, and why each of the others wasn't.
+ */
+public class BulkResult {
+    private final int created;
+    private final List<ItemError> errors;
+
+    /**
+     * Why one item of a bulk create failed.
+     */
+    public static class ItemError {
+        private final int index;
+        private final String id;
+        private final String type;
+        private final String message;
+
+        public ItemError(int index, String id, Exception e) {
+            this.index = index;
+            this.id = id;
+            this.type = e instanceof UNSWException err ? err.getType() : e.getClass().getSimpleName();
+            this.message = e.getMessage();
+        }
+
+        /**
+         * @return the item's position in the request, counting from 0.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the ID of the entity the item would have created, or null if the item couldn't be read.
+         */
+        public String getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public BulkResult(int created, List<ItemError> errors) {
+        this.created = created;
+        this.errors = List.copyOf(errors);
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+}
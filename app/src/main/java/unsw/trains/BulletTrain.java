@@ -1,6 +1,7 @@
 package unsw.trains;
 
 import unsw.utils.LoadUtils;
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 import unsw.routes.RouteType;
 import unsw.stations.Station;
@@ -9,7 +10,6 @@ import unsw.loads.Load;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class BulletTrain extends Train {
     private static final double BASE_SPEED = 5.0;
@@ -18,17 +18,17 @@ public class BulletTrain extends Train {
     // The bullet train’s current loads
     private List<Load> loads;
 
-    public BulletTrain(String trainId, Position position, String currentLocationId, unsw.routes.Route route) {
-        super(trainId, position, currentLocationId, route);
+    public BulletTrain(String trainId, Position position, String currentLocationId, unsw.routes.Route route,
+            TrainStateStore states) {
+        super(trainId, position, currentLocationId, route, states);
         this.loads = new ArrayList<>();
     }
 
     @Override
-    public double getSpeed() {
-        double totalWeight = LoadUtils.getTotalWeight(loads);
+    protected double computeSpeed() {
         // E.g. for bullet train, we might reduce speed by 0.01% per kg, or something similar.
         // If you want to keep it simpler, you can just do BASE_SPEED (the spec hints at slowdown, though).
-        return LoadUtils.calculateEffectiveSpeed(BASE_SPEED, totalWeight);
+        return LoadUtils.calculateEffectiveSpeed(BASE_SPEED, getLoadWeight());
     }
 
     public double getMaxCombinedWeight() {
@@ -37,7 +37,7 @@ public class BulletTrain extends Train {
 
     @Override
     public List<Load> getLoads() {
-        // So stations can call train.getLoads().remove(...)
+        // Stations take loads off through removeLoads, which keeps the weight on board up to date
         return this.loads;
     }
 
@@ -48,19 +48,20 @@ public class BulletTrain extends Train {
                     "Cannot add load. Exceeds BulletTrain’s max combined load of " + MAX_COMBINED_WEIGHT);
         }
         this.loads.add(load);
+        loadAdded(load);
     }
 
     public double getTotalLoadWeight() {
-        return loads.stream().mapToDouble(Load::getWeight).sum();
+        return getLoadWeight();
     }
 
     /**
      * The main movement method, updated to do pre-departure + arrival load/unload.
      */
     @Override
-    public void moveOneTick(Map<String, Station> stations, Map<String, Track> tracks) {
+    public void moveOneTick(IdTable<Station> stations, IdTable<Track> tracks) {
         // (1) If physically on a station at start of tick, do pre-departure load/unload
-        Station currentStation = stations.get(getCurrentLocationId());
+        Station currentStation = stations.get(getCurrentLocationHandle());
         if (currentStation != null) {
             currentStation.unloadTrain(this);
             currentStation.loadTrain(this);
@@ -68,30 +69,26 @@ public class BulletTrain extends Train {
 
         // (2) Decide partial movement vs arrival
         boolean forward = isMovingForward();
-        String nextStationId = getRoute().getNextStation(getCurrentLocationId(), forward);
-        Station nextStation = stations.get(nextStationId);
-
-        double distance = getPosition().distance(nextStation.getPosition());
-        double effectiveSpeed = getSpeed();
-
-        if (effectiveSpeed >= distance) {
-            // We arrive this tick
-            setPosition(nextStation.getPosition());
-            setCurrentLocationId(nextStationId);
+        int nextStationHandle = getRoute().getNextStationHandle(getCurrentLocationHandle(), forward);
+        Station nextStation = stations.get(nextStationHandle);
+        double effectiveSpeed = currentSpeed();
 
+        // moves partway, or arrives this tick
+        if (advanceTowards(nextStation, effectiveSpeed)) {
             // (3) ARRIVAL => load/unload again
             nextStation.unloadTrain(this);
             nextStation.loadTrain(this);
 
             // If linear route, we might reverse
-            if (getRoute().getType() == RouteType.LINEAR) {
-                updateDirectionIfNeeded(forward);
-            }
-            // cyc route => direction remains
-        } else {
-            // partial
-            Position newPos = getPosition().calculateNewPosition(nextStation.getPosition(), effectiveSpeed);
-            setPosition(newPos);
+            turnAroundIfNeeded(forward);
+        }
+    }
+
+    @Override
+    protected void turnAroundIfNeeded(boolean forward) {
+        if (getRoute().getType() == RouteType.LINEAR) {
+            updateDirectionIfNeeded(forward);
         }
+        // cyc route => direction remains
     }
 }
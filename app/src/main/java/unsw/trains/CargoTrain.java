@@ -1,6 +1,7 @@
 package unsw.trains;
 
 import unsw.utils.LoadUtils;
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 import unsw.loads.Cargo;
 import unsw.routes.Route;
@@ -8,28 +9,44 @@ import unsw.stations.Station;
 import unsw.tracks.Track;
 import unsw.loads.Load;
 
-import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public class CargoTrain extends Train {
+    private static final Logger LOG = LoggerFactory.getLogger(CargoTrain.class);
     private static final double BASE_SPEED = 3.0;
     private static final double MAX_CARGO_WEIGHT = 5000.0;
 
     // Keep a list of cargo loads on the train
     private List<Cargo> cargoes;
 
-    public CargoTrain(String trainId, Position position, String currentLocationId, Route route) {
-        super(trainId, position, currentLocationId, route);
+    public CargoTrain(String trainId, Position position, String currentLocationId, Route route,
+            TrainStateStore states) {
+        super(trainId, position, currentLocationId, route, states);
         this.cargoes = new ArrayList<>();
     }
 
     @Override
-    public double getSpeed() {
-        // e.g. slowdown formula: baseSpeed * (1 - 0.0001 * totalCargoWeight)
-        // or use a helper like LoadUtils:
-        double totalWeight = LoadUtils.getTotalWeight(cargoes);
-        return LoadUtils.calculateEffectiveSpeed(BASE_SPEED, totalWeight);
+    protected double computeSpeed() {
+        // slowdown formula: baseSpeed * (1 - 0.0001 * totalCargoWeight)
+        return LoadUtils.calculateEffectiveSpeed(BASE_SPEED, getCargoWeight());
+    }
+
+    @Override
+    public double getArrivalTolerance() {
+        return 0.01;
+    }
+
+    /**
+     * Cargo trains only leave stations they are registered at.
+     */
+    @Override
+    public boolean canDepart(Station currentStation) {
+        return currentStation.getTrains().contains(this);
     }
 
     public double getMaxCargoWeight() {
@@ -40,25 +57,25 @@ public class CargoTrain extends Train {
      * Called by station.loadTrain(...) if capacity is okay.
      */
     public void addCargo(Cargo cargo) {
-        System.out.println("DEBUG: Attempting to add cargo " + cargo.getLoad() + " to train " + getTrainId());
+        LOG.debug("Attempting to add cargo {} to train {}", cargo.getLoad(), getTrainId());
         double currentWeight = getTotalCargoWeight();
         double newWeight = currentWeight + cargo.getWeight();
 
         if (newWeight > MAX_CARGO_WEIGHT) {
-            System.out.println("DEBUG: Cargo too heavy! " + newWeight + " exceeds max weight " + MAX_CARGO_WEIGHT);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cargo too heavy! {} exceeds max weight {}", newWeight, MAX_CARGO_WEIGHT);
+            }
             throw new IllegalStateException("Adding cargo would exceed max weight.");
         }
         cargoes.add(cargo);
-        System.out.println(
-                "DEBUG: Cargo " + cargo.getLoad() + " successfully added. New total weight: " + getTotalCargoWeight());
+        loadAdded(cargo);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cargo {} successfully added. New total weight: {}", cargo.getLoad(), getTotalCargoWeight());
+        }
     }
 
     public double getTotalCargoWeight() {
-        double total = 0;
-        for (Cargo c : cargoes) {
-            total += c.getWeight();
-        }
-        return total;
+        return getCargoWeight();
     }
 
     @Override
@@ -75,58 +92,68 @@ public class CargoTrain extends Train {
      * partial movement or arrival, and arrival loading if we do arrive.
      */
     @Override
-    public void moveOneTick(Map<String, Station> stations, Map<String, Track> tracks) {
+    public void moveOneTick(IdTable<Station> stations, IdTable<Track> tracks) {
         // (1) If physically on a station at the start of the tick, do load/unload.
-        Station currentStation = stations.get(getCurrentLocationId());
-        System.out.println("DEBUG: CargoTrain#moveOneTick start => currentLocationId=" + getCurrentLocationId());
+        Station currentStation = stations.get(getCurrentLocationHandle());
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("CargoTrain#moveOneTick start => currentLocationId={}", getCurrentLocationId());
+        }
 
         if (currentStation != null) {
-            System.out.println("DEBUG: Pre-departure load/unload on station" + currentStation.getStationId());
+            LOG.trace("Pre-departure load/unload on station {}", currentStation.getStationId());
             currentStation.unloadTrain(this); // Usually no effect for cargo trains unless something is wrongly loaded
             currentStation.loadTrain(this); // ensures we pick up cargo at the start station
             // Ensure movement is triggered
-            if (!currentStation.getTrains().contains(this)) {
+            if (!canDepart(currentStation)) {
                 return; // Prevent moving if still registered at the station
             }
         }
 
         // (2) Next, do partial movement or arrival
         boolean forward = isMovingForward();
-        String nextStationId = getRoute().getNextStation(getCurrentLocationId(), forward);
-        Station nextStation = stations.get(nextStationId);
-
-        double distance = getPosition().distance(nextStation.getPosition());
-        double speed = getSpeed();
-        double tolerance = 0.01;
-        if (speed >= distance - tolerance) {
-            // We arrive this tick
-            setPosition(nextStation.getPosition());
-            setCurrentLocationId(nextStationId);
+        int nextStationHandle = getRoute().getNextStationHandle(getCurrentLocationHandle(), forward);
+        Station nextStation = stations.get(nextStationHandle);
+        double speed = currentSpeed();
 
+        // moves partway, or arrives this tick
+        if (advanceTowards(nextStation, speed)) {
             // On arrival, unload & load again
-            System.out.println("DEBUG: CargoTrain arrived at " + nextStationId + " and unloading cargo.");
+            LOG.debug("CargoTrain {} arrived at {} and unloading cargo.", getTrainId(), nextStation.getStationId());
 
             nextStation.unloadTrain(this);
             nextStation.loadTrain(this);
-            // Ensure that when arriving, all unloading happens correctly
-            System.out.println("DEBUG: CargoTrain arrived at " + nextStationId + " and unloading cargo.");
 
             // If linear route, we might reverse direction
             updateDirectionIfNeeded(forward);
-        } else {
-            // partial movement
-            Position newPos = getPosition().calculateNewPosition(nextStation.getPosition(), speed);
-            setPosition(newPos);
         }
     }
 
+    @Override
+    public boolean carriesLoadFor(int stationHandle) {
+        for (int i = 0; i < cargoes.size(); i++) {
+            if (cargoes.get(i).getDestinationHandle() == stationHandle) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Return all loads this train is carrying. Station uses this to remove cargo
      * that is delivered or to check capacity.
      */
     @Override
     public List<Load> getLoads() {
-        System.out.println("DEBUG: trainCargo currently has " + cargoes.size() + " cargo items.");
         return new ArrayList<>(cargoes);
     }
+
+    /**
+     * getLoads hands out a copy, so delivered cargo is taken off the train's own list.
+     */
+    @Override
+    public void removeLoads(Collection<Load> delivered) {
+        if (cargoes.removeAll(delivered)) {
+            loadsRemoved();
+        }
+    }
 }
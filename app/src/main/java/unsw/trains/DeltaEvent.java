@@ -0,0 +1,166 @@
+package unsw.trains;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import unsw.response.models.LoadInfoResponse;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrackInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.utils.Position;
+
+/**
+ * One thing that changed between two snapshots. Only the fields relevant to the type are set.
+ */
+public final class DeltaEvent {
+    /**
+     * What happened.
+     */
+    public enum Type {
+        TRAIN_CREATED, STATION_CREATED, TRACK_CREATED, TRAIN_MOVED, TRAIN_ARRIVED, LOAD_CREATED, LOAD_PICKED_UP,
+        LOAD_DELIVERED
+    }
+
+    private final Type type;
+    private String trainId;
+    private String stationId;
+    private String loadId;
+    private Position position;
+    private Object info;
+
+    private DeltaEvent(Type type) {
+        this.type = type;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTrainId() {
+        return trainId;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+
+    public String getLoadId() {
+        return loadId;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the full response of a created train, station or track.
+     */
+    public Object getInfo() {
+        return info;
+    }
+
+    /**
+     * @return what changed from one snapshot to the next, trains first, then stations, then tracks.
+     */
+    public static List<DeltaEvent> between(Snapshot previous, Snapshot current) {
+        List<DeltaEvent> events = new ArrayList<>();
+        for (String trainId : current.listTrainIds()) {
+            TrainInfoResponse before = previous.findTrainInfo(trainId);
+            TrainInfoResponse after = current.findTrainInfo(trainId);
+            if (before != after) {
+                trainChanges(before, after, events);
+            }
+        }
+        for (String stationId : current.listStationIds()) {
+            StationInfoResponse before = previous.findStationInfo(stationId);
+            StationInfoResponse after = current.findStationInfo(stationId);
+            if (before != after) {
+                stationChanges(before, after, events);
+            }
+        }
+        for (String trackId : current.listTrackIds()) {
+            TrackInfoResponse after = current.findTrackInfo(trackId);
+            if (previous.findTrackInfo(trackId) == null) {
+                DeltaEvent created = new DeltaEvent(Type.TRACK_CREATED);
+                created.info = after;
+                events.add(created);
+            }
+        }
+        return events;
+    }
+
+    private static void trainChanges(TrainInfoResponse before, TrainInfoResponse after, List<DeltaEvent> events) {
+        if (before == null) {
+            DeltaEvent created = new DeltaEvent(Type.TRAIN_CREATED);
+            created.trainId = after.getTrainId();
+            created.info = after;
+            events.add(created);
+            return;
+        }
+        if (!Objects.equals(before.getPosition(), after.getPosition())) {
+            DeltaEvent moved = new DeltaEvent(Type.TRAIN_MOVED);
+            moved.trainId = after.getTrainId();
+            moved.position = after.getPosition();
+            events.add(moved);
+        }
+        if (!Objects.equals(before.getLocation(), after.getLocation())) {
+            DeltaEvent arrived = new DeltaEvent(Type.TRAIN_ARRIVED);
+            arrived.trainId = after.getTrainId();
+            arrived.stationId = after.getLocation();
+            events.add(arrived);
+        }
+        Set<String> beforeLoads = loadIds(before.getLoads());
+        Set<String> afterLoads = loadIds(after.getLoads());
+        for (LoadInfoResponse load : before.getLoads()) {
+            if (!afterLoads.contains(load.getLoadId())) {
+                events.add(loadEvent(Type.LOAD_DELIVERED, after, load));
+            }
+        }
+        for (LoadInfoResponse load : after.getLoads()) {
+            if (!beforeLoads.contains(load.getLoadId())) {
+                events.add(loadEvent(Type.LOAD_PICKED_UP, after, load));
+            }
+        }
+    }
+
+    private static DeltaEvent loadEvent(Type type, TrainInfoResponse train, LoadInfoResponse load) {
+        DeltaEvent event = new DeltaEvent(type);
+        event.trainId = train.getTrainId();
+        event.stationId = train.getLocation();
+        event.loadId = load.getLoadId();
+        return event;
+    }
+
+    private static void stationChanges(StationInfoResponse before, StationInfoResponse after,
+            List<DeltaEvent> events) {
+        if (before == null) {
+            DeltaEvent created = new DeltaEvent(Type.STATION_CREATED);
+            created.stationId = after.getStationId();
+            created.info = after;
+            events.add(created);
+            return;
+        }
+        // loads only leave a station by being picked up, which the train's events already cover
+        Set<String> beforeLoads = loadIds(before.getLoads());
+        for (LoadInfoResponse load : after.getLoads()) {
+            if (!beforeLoads.contains(load.getLoadId())) {
+                DeltaEvent created = new DeltaEvent(Type.LOAD_CREATED);
+                created.stationId = after.getStationId();
+                created.loadId = load.getLoadId();
+                created.info = load;
+                events.add(created);
+            }
+        }
+    }
+
+    private static Set<String> loadIds(List<LoadInfoResponse> loads) {
+        Set<String> ids = new HashSet<>();
+        for (LoadInfoResponse load : loads) {
+            ids.add(load.getLoadId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,127 @@
+package unsw.trains;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fans out what changed with each snapshot the controller publishes to any number of subscribers.
+ *
+ * Each subscriber has a bounded queue of batches. A subscriber that falls so far behind its queue fills up loses
+ * the batches it hasn't read, and is told to resync instead: fetch the whole state again and carry on from there.
+ * Publishing never waits on a subscriber.
+ *
+ * The stream only listens to the controller while it has subscribers, since the controller publishes after every
+ * tick only while someone is listening.
+ */
+public class DeltaStream implements Consumer<Snapshot> {
+    public static final int QUEUE_CAPACITY = 64;
+
+    private final TrainsController controller;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Snapshot last;
+
+    /**
+     * Everything that changed with one published snapshot. A resync batch has no events and stands in for
+     * everything up to its tick.
+     */
+    public static final class Batch {
+        private final long tick;
+        private final boolean resync;
+        private final List<DeltaEvent> events;
+
+        Batch(long tick, boolean resync, List<DeltaEvent> events) {
+            this.tick = tick;
+            this.resync = resync;
+            this.events = events;
+        }
+
+        public long getTick() {
+            return tick;
+        }
+
+        public boolean isResync() {
+            return resync;
+        }
+
+        public List<DeltaEvent> getEvents() {
+            return events;
+        }
+    }
+
+    /**
+     * One subscriber's queue of batches.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private Subscription() {
+        }
+
+        /**
+         * @return the next batch, or null if none arrives within the timeout.
+         */
+        public Batch poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+
+        private void offer(Batch batch) {
+            if (!queue.offer(batch)) {
+                queue.clear();
+                queue.offer(new Batch(batch.getTick(), true, List.of()));
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (DeltaStream.this) {
+                if (subscriptions.remove(this) && subscriptions.isEmpty()) {
+                    controller.removePublishListener(DeltaStream.this);
+                }
+            }
+        }
+    }
+
+    public DeltaStream(TrainsController controller) {
+        this.controller = controller;
+        this.last = controller.getPublishedSnapshot();
+    }
+
+    /**
+     * Starts a subscription. Its first batch is a resync, as the subscriber has yet to see any state.
+     */
+    public synchronized Subscription subscribe() {
+        if (subscriptions.isEmpty()) {
+            controller.addPublishListener(this);
+            // anything published while no one was listening is in the resync
+            last = controller.getPublishedSnapshot();
+        }
+        Subscription subscription = new Subscription();
+        subscriptions.add(subscription);
+        subscription.offer(new Batch(last.getTick(), true, List.of()));
+        return subscription;
+    }
+
+    /**
+     * Called with every snapshot the controller publishes.
+     */
+    @Override
+    public void accept(Snapshot snapshot) {
+        Snapshot previous = last;
+        last = snapshot;
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        List<DeltaEvent> events = DeltaEvent.between(previous, snapshot);
+        if (events.isEmpty()) {
+            return;
+        }
+        Batch batch = new Batch(snapshot.getTick(), false, List.copyOf(events));
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(batch);
+        }
+    }
+}
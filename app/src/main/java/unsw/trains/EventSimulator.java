@@ -0,0 +1,174 @@
+package unsw.trains;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import unsw.routes.RouteLeg;
+import unsw.stations.Station;
+import unsw.tracks.Track;
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+/**
+ * Discrete-event engine. Instead of moving every train every tick, each train is scheduled for the tick it next
+ * arrives at a station, and only trains arriving (or with loads to exchange) are simulated on a tick. Trains in
+ * between stations are only moved when they are next looked at.
+ *
+ * A train that is not arriving and has no transfer work at its current station only moves towards its next
+ * station at a fixed speed, since nothing else can change its loads. Such trains skip the stations' work, and their
+ * movement is only worked out when they are next looked at, stepping through the same arithmetic as the stepping
+ * engines, so the tick they arrive on and where they are agree exactly.
+ */
+public class EventSimulator {
+    private static final Comparator<Leg> ARRIVAL_ORDER = Comparator.comparingLong((Leg l) -> l.arrivalTick)
+            .thenComparing(l -> l.train.getTrainId());
+
+    private final Map<Train, Leg> legs = new HashMap<>();
+    private final PriorityQueue<Leg> arrivals = new PriorityQueue<>(ARRIVAL_ORDER);
+    private long tick = 0;
+
+    /**
+     * A train moving between stations without anything else happening to it.
+     */
+    private static class Leg {
+        private final Train train;
+        private final long departureTick;
+        private final long arrivalTick;
+        // the train goes along its route leg as advanceTowards moves it, in whole micro-unit steps in the
+        // fixed-point mode
+        private final RouteLeg routeLeg;
+        private final double speed;
+        private final double startProgress;
+        private final long startMicros;
+        private final long step;
+
+        Leg(Train train, long departureTick) {
+            this.train = train;
+            this.departureTick = departureTick;
+            this.routeLeg = train.getRoute().getLeg(train.getCurrentLocationHandle(), train.isMovingForward());
+            this.speed = train.getSpeed();
+            if (train.isFixedPoint()) {
+                this.startProgress = 0;
+                this.startMicros = train.getLegProgress();
+                this.step = train.getStepMicros();
+            } else {
+                Position origin = train.getPosition();
+                this.startProgress = routeLeg.progressOf(origin.getX(), origin.getY());
+                this.startMicros = 0;
+                this.step = 0;
+            }
+            this.arrivalTick = departureTick + ticksUntilArrival();
+        }
+
+        /**
+         * @return the number of ticks until the train's movement reaches the end of the leg, the same tick the
+         *         stepping engines arrive on.
+         */
+        private long ticksUntilArrival() {
+            if (train.isFixedPoint()) {
+                return routeLeg.ticksToArriveMicros(startMicros, step, train.getArrivalToleranceMicros());
+            }
+            return routeLeg.ticksToArrive(startProgress, speed, train.getArrivalTolerance());
+        }
+
+        /**
+         * Moves the train to where it is at the given tick.
+         */
+        private void moveTrain(long atTick) {
+            if (atTick <= departureTick) {
+                return;
+            }
+            if (train.isFixedPoint()) {
+                train.moveAlongLeg(startMicros + (atTick - departureTick) * step);
+            } else {
+                train.setPosition(routeLeg.positionAfter(startProgress, speed, atTick - departureTick));
+            }
+        }
+    }
+
+    /**
+     * Simulates the given number of ticks. Trains are left wherever they were last simulated until
+     * {@link #materialize()} is called.
+     */
+    public void simulate(int numberOfMinutes, TrainRegistry trains, IdTable<Station> stations,
+            IdTable<Track> tracks) {
+        materialize();
+        List<Train> pending = new ArrayList<>();
+        for (Train train : trains.values()) {
+            schedule(train, stations, pending);
+        }
+
+        long end = tick + numberOfMinutes;
+        while (true) {
+            long next = pending.isEmpty() ? Long.MAX_VALUE : tick + 1;
+            if (!arrivals.isEmpty()) {
+                next = Math.min(next, arrivals.peek().arrivalTick);
+            }
+            if (next > end) {
+                break;
+            }
+            tick = next - 1;
+
+            List<Train> batch = pending;
+            pending = new ArrayList<>();
+            while (!arrivals.isEmpty() && arrivals.peek().arrivalTick == next) {
+                batch.add(arrivals.poll().train);
+            }
+            batch.sort(Comparator.comparing(Train::getTrainId));
+            for (Train train : batch) {
+                catchUp(train);
+                train.moveOneTick(stations, tracks);
+            }
+
+            tick = next;
+            for (Train train : batch) {
+                schedule(train, stations, pending);
+            }
+        }
+        tick = end;
+    }
+
+    /**
+     * Moves every train to where it is at the current tick.
+     */
+    public void materialize() {
+        if (legs.isEmpty()) {
+            return;
+        }
+        for (Leg leg : legs.values()) {
+            leg.moveTrain(tick);
+        }
+        legs.clear();
+        arrivals.clear();
+    }
+
+    private void catchUp(Train train) {
+        Leg leg = legs.remove(train);
+        if (leg != null) {
+            leg.moveTrain(tick);
+        }
+    }
+
+    /**
+     * Works out the next tick the train needs simulating: the next one if it has loads to exchange at its
+     * current station, otherwise the tick it arrives at its next station.
+     */
+    private void schedule(Train train, IdTable<Station> stations, List<Train> pending) {
+        Station current = stations.get(train.getCurrentLocationHandle());
+        if (current.hasTransferWork(train)) {
+            pending.add(train);
+            return;
+        }
+        if (!train.canDepart(current)) {
+            // stays put until a new load arrives, which only happens between simulate calls
+            return;
+        }
+        Leg leg = new Leg(train, tick);
+        legs.put(train, leg);
+        arrivals.add(leg);
+    }
+}
@@ -0,0 +1,210 @@
+package unsw.trains;
+
+import java.util.Arrays;
+
+import unsw.routes.RouteLeg;
+import unsw.stations.Station;
+import unsw.utils.FixedPoint;
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+/**
+ * Moves a batch of trains that do nothing this tick but move, in one pass over primitive arrays: how far along its
+ * leg each train is, whether this tick's step reaches the end, and where it ends up. The arithmetic uses the Vector
+ * API when built with -PvectorApi and run with the jdk.incubator.vector module, and goes a lane at a time
+ * otherwise, with the same result to the bit either way. In the fixed-point mode the lanes are whole micro-units
+ * and the step is whole-number arithmetic, batched the same way but always a lane at a time: the point along the
+ * leg takes a 128-bit product, which the Vector API has no lane operation for.
+ */
+class MovementKernel {
+    private static final Lanes VECTOR_LANES = loadVectorLanes();
+    static final boolean VECTOR_API = VECTOR_LANES != null;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TrainStateStore states;
+    private Train[] trains = new Train[INITIAL_CAPACITY];
+    private int count = 0;
+
+    // one lane per train
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] fromX = new double[INITIAL_CAPACITY];
+    private double[] fromY = new double[INITIAL_CAPACITY];
+    private double[] unitX = new double[INITIAL_CAPACITY];
+    private double[] unitY = new double[INITIAL_CAPACITY];
+    private double[] length = new double[INITIAL_CAPACITY];
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private double[] tolerance = new double[INITIAL_CAPACITY];
+    private boolean[] arrived = new boolean[INITIAL_CAPACITY];
+    // the same in micro-units for the fixed-point mode, with the leg's direction scaled as RouteLeg keeps it
+    private long[] progressMicros = new long[INITIAL_CAPACITY];
+    private long[] fromXMicros = new long[INITIAL_CAPACITY];
+    private long[] fromYMicros = new long[INITIAL_CAPACITY];
+    private long[] unitXScaled = new long[INITIAL_CAPACITY];
+    private long[] unitYScaled = new long[INITIAL_CAPACITY];
+    private long[] lengthMicros = new long[INITIAL_CAPACITY];
+    private long[] stepMicros = new long[INITIAL_CAPACITY];
+    private long[] toleranceMicros = new long[INITIAL_CAPACITY];
+
+    /**
+     * Moves lanes a vector at a time, as advanceLanes does one at a time.
+     */
+    interface Lanes {
+        /**
+         * Moves the lanes from the first up to the last whole vector's worth.
+         * @return the number of lanes moved; the rest are left to the caller.
+         */
+        int advance(int count, double[] x, double[] y, double[] fromX, double[] fromY, double[] unitX,
+                double[] unitY, double[] length, double[] speed, double[] tolerance, boolean[] arrived);
+    }
+
+    MovementKernel(TrainStateStore states) {
+        this.states = states;
+    }
+
+    /**
+     * @return the Vector API lanes, or null if they weren't built or the module isn't there to run them.
+     */
+    private static Lanes loadVectorLanes() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Lanes) Class.forName("unsw.trains.VectorMovement").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds a train to be moved by the next call to advance. Nothing may happen to the train this tick other than
+     * moving, i.e. it has no loads to exchange at either end of its leg and is free to depart.
+     */
+    void add(Train train) {
+        if (count == trains.length) {
+            grow();
+        }
+        trains[count++] = train;
+    }
+
+    /**
+     * Moves every train added since the last call one tick along its leg, as moveOneTick would.
+     */
+    void advance(IdTable<Station> stations) {
+        if (states.isFixedPoint()) {
+            gatherMicros();
+            advanceMicroLanes();
+            scatter(stations);
+        } else {
+            gather();
+            int done = VECTOR_API ? VECTOR_LANES.advance(count, x, y, fromX, fromY, unitX, unitY, length, speed,
+                    tolerance, arrived) : 0;
+            advanceLanes(done);
+            scatter(stations);
+        }
+        Arrays.fill(trains, 0, count, null);
+        count = 0;
+    }
+
+    private void gather() {
+        for (int i = 0; i < count; i++) {
+            Train train = trains[i];
+            int slot = train.getSlot();
+            RouteLeg leg = train.getRoute().getLeg(train.getCurrentLocationHandle(), train.isMovingForward());
+            x[i] = states.getX(slot);
+            y[i] = states.getY(slot);
+            fromX[i] = leg.getFromX();
+            fromY[i] = leg.getFromY();
+            unitX[i] = leg.getUnitX();
+            unitY[i] = leg.getUnitY();
+            length[i] = leg.getLength();
+            speed[i] = train.currentSpeed();
+            tolerance[i] = train.getArrivalTolerance();
+        }
+    }
+
+    private void gatherMicros() {
+        for (int i = 0; i < count; i++) {
+            Train train = trains[i];
+            RouteLeg leg = train.getRoute().getLeg(train.getCurrentLocationHandle(), train.isMovingForward());
+            progressMicros[i] = states.getProgress(train.getSlot());
+            fromXMicros[i] = leg.getFromXMicros();
+            fromYMicros[i] = leg.getFromYMicros();
+            unitXScaled[i] = leg.getUnitXScaled();
+            unitYScaled[i] = leg.getUnitYScaled();
+            lengthMicros[i] = leg.getLengthMicros();
+            train.currentSpeed();
+            stepMicros[i] = train.getStepMicros();
+            toleranceMicros[i] = train.getArrivalToleranceMicros();
+        }
+    }
+
+    /**
+     * The same arithmetic as advanceTowards in the fixed-point mode, leaving each lane's position in x and y.
+     */
+    private void advanceMicroLanes() {
+        for (int i = 0; i < count; i++) {
+            arrived[i] = stepMicros[i] >= lengthMicros[i] - progressMicros[i] - toleranceMicros[i];
+            progressMicros[i] = arrived[i] ? 0 : progressMicros[i] + stepMicros[i];
+            x[i] = FixedPoint.fromMicros(fromXMicros[i] + RouteLeg.offsetMicros(unitXScaled[i], progressMicros[i]));
+            y[i] = FixedPoint.fromMicros(fromYMicros[i] + RouteLeg.offsetMicros(unitYScaled[i], progressMicros[i]));
+        }
+    }
+
+    /**
+     * The same arithmetic as advanceTowards, for the lanes from the given one on.
+     */
+    private void advanceLanes(int from) {
+        for (int i = from; i < count; i++) {
+            double progress = (x[i] - fromX[i]) * unitX[i] + (y[i] - fromY[i]) * unitY[i];
+            arrived[i] = speed[i] >= length[i] - progress - tolerance[i];
+            progress += speed[i];
+            x[i] = fromX[i] + unitX[i] * progress;
+            y[i] = fromY[i] + unitY[i] * progress;
+        }
+    }
+
+    private void scatter(IdTable<Station> stations) {
+        for (int i = 0; i < count; i++) {
+            Train train = trains[i];
+            int slot = train.getSlot();
+            if (states.isFixedPoint()) {
+                states.setProgress(slot, progressMicros[i]);
+            }
+            if (arrived[i]) {
+                boolean forward = train.isMovingForward();
+                int next = train.getRoute().getLeg(train.getCurrentLocationHandle(), forward).getToHandle();
+                Position target = stations.get(next).getPosition();
+                states.setPosition(slot, target.getX(), target.getY());
+                states.setLocationIndex(slot, next);
+                train.turnAroundIfNeeded(forward);
+            } else {
+                states.setPosition(slot, x[i], y[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        int capacity = trains.length * 2;
+        trains = Arrays.copyOf(trains, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        fromX = Arrays.copyOf(fromX, capacity);
+        fromY = Arrays.copyOf(fromY, capacity);
+        unitX = Arrays.copyOf(unitX, capacity);
+        unitY = Arrays.copyOf(unitY, capacity);
+        length = Arrays.copyOf(length, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        tolerance = Arrays.copyOf(tolerance, capacity);
+        arrived = Arrays.copyOf(arrived, capacity);
+        progressMicros = Arrays.copyOf(progressMicros, capacity);
+        fromXMicros = Arrays.copyOf(fromXMicros, capacity);
+        fromYMicros = Arrays.copyOf(fromYMicros, capacity);
+        unitXScaled = Arrays.copyOf(unitXScaled, capacity);
+        unitYScaled = Arrays.copyOf(unitYScaled, capacity);
+        lengthMicros = Arrays.copyOf(lengthMicros, capacity);
+        stepMicros = Arrays.copyOf(stepMicros, capacity);
+        toleranceMicros = Arrays.copyOf(toleranceMicros, capacity);
+    }
+}
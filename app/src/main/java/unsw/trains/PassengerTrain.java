@@ -1,27 +1,28 @@
 package unsw.trains;
 
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 import unsw.routes.Route;
 import unsw.stations.Station;
 import unsw.tracks.Track;
-import java.util.Map;
 
 public class PassengerTrain extends Train {
     private static final double SPEED = 2.0;
 
-    public PassengerTrain(String trainId, Position position, String currentLocationId, Route route) {
-        super(trainId, position, currentLocationId, route);
+    public PassengerTrain(String trainId, Position position, String currentLocationId, Route route,
+            TrainStateStore states) {
+        super(trainId, position, currentLocationId, route, states);
     }
 
     @Override
-    public double getSpeed() {
+    protected double computeSpeed() {
         return SPEED;
     }
 
     @Override
-    public void moveOneTick(Map<String, Station> stations, Map<String, Track> tracks) {
+    public void moveOneTick(IdTable<Station> stations, IdTable<Track> tracks) {
         // 1) If the train is physically on a station at the start of the tick, do pre-departure load/unload.
-        Station currentStation = stations.get(getCurrentLocationId());
+        Station currentStation = stations.get(getCurrentLocationHandle());
         if (currentStation != null) {
             // Unload any loads whose destination is this station
             currentStation.unloadTrain(this);
@@ -31,27 +32,18 @@ public class PassengerTrain extends Train {
 
         // 2) Now figure out next station for partial movement or inbound arrival
         boolean forward = isMovingForward();
-        String nextStationId = getRoute().getNextStation(getCurrentLocationId(), forward);
-        Station nextStation = stations.get(nextStationId);
-
-        double distance = getPosition().distance(nextStation.getPosition());
-        double effectiveSpeed = getSpeed(); // e.g. 2.0 for PassengerTrain
+        int nextStationHandle = getRoute().getNextStationHandle(getCurrentLocationHandle(), forward);
+        Station nextStation = stations.get(nextStationHandle);
+        double effectiveSpeed = currentSpeed(); // e.g. 2.0 for PassengerTrain
 
         // 3) If we can reach the next station in this tick, do so, then load/unload again
-        if (effectiveSpeed >= distance) {
-            setPosition(nextStation.getPosition());
-            setCurrentLocationId(nextStationId);
-
+        if (advanceTowards(nextStation, effectiveSpeed)) {
             // Arrival load/unload
             nextStation.unloadTrain(this);
             nextStation.loadTrain(this);
 
             // Potentially reverse if linear route endpoint
             updateDirectionIfNeeded(forward);
-        } else {
-            // partial movement
-            Position newPos = getPosition().calculateNewPosition(nextStation.getPosition(), effectiveSpeed);
-            setPosition(newPos);
         }
     }
 }
@@ -0,0 +1,26 @@
+package unsw.trains;
+
+/**
+ * The strategy the controller uses to advance the simulation by one tick.
+ */
+public enum SimulationEngine {
+    /**
+     * Every train is moved one after another in trainId order.
+     */
+    SEQUENTIAL,
+    /**
+     * Trains that cannot exchange loads this tick are moved on the fork-join pool, trains that can are moved
+     * per group of connected stations in trainId order. Produces the same state as SEQUENTIAL.
+     */
+    PARALLEL,
+    /**
+     * Trains are only simulated on ticks where they arrive at a station or have loads to exchange, in between
+     * their positions are interpolated. Matches SEQUENTIAL up to floating point rounding of positions.
+     */
+    EVENT_DRIVEN,
+    /**
+     * Trains with no loads to carry or pick up are jumped forward by whole periods of their route, the rest are
+     * stepped as in SEQUENTIAL. Produces the same state as SEQUENTIAL.
+     */
+    FAST_FORWARD
+}
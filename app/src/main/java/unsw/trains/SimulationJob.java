@@ -0,0 +1,161 @@
+package unsw.trains;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A simulation of some number of minutes run in the background. The controller lock is only held for one slice of
+ * ticks at a time, so queries and creates get a turn between slices. Slices are sized to take about
+ * {@link #TARGET_SLICE_NANOS}, however fast the current engine happens to be.
+ */
+public class SimulationJob implements Runnable {
+    private static final long TARGET_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * Where a job is in its life.
+     */
+    public enum Status {
+        QUEUED, RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    private final String jobId;
+    private final int length;
+    private final TrainsController controller;
+    private final Lock lock;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested = false;
+    private volatile int ticksDone = 0;
+    private volatile long startNanos = 0;
+    private volatile long endNanos = 0;
+    private volatile String error = null;
+
+    /**
+     * @param lock held for each slice, and taken again straight after; see {@link SimulationJobs}.
+     */
+    public SimulationJob(String jobId, int length, TrainsController controller, Lock lock) {
+        this.jobId = jobId;
+        this.length = length;
+        this.controller = controller;
+        this.lock = lock;
+    }
+
+    @Override
+    public void run() {
+        if (cancelRequested) {
+            finish(Status.CANCELLED);
+            return;
+        }
+        status = Status.RUNNING;
+        startNanos = System.nanoTime();
+        try {
+            int slice = 1;
+            while (ticksDone < length) {
+                if (cancelRequested) {
+                    finish(Status.CANCELLED);
+                    return;
+                }
+                int ticks = Math.min(slice, length - ticksDone);
+                long sliceStart = System.nanoTime();
+                lock.lock();
+                try {
+                    controller.simulate(ticks);
+                } finally {
+                    lock.unlock();
+                }
+                ticksDone += ticks;
+                slice = nextSlice(slice, System.nanoTime() - sliceStart);
+            }
+            finish(Status.DONE);
+        } catch (RuntimeException | Error e) {
+            // an Error ends the job just the same, so nothing waiting on it waits forever
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            finish(Status.FAILED);
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    private static int nextSlice(int slice, long elapsedNanos) {
+        if (elapsedNanos < TARGET_SLICE_NANOS / 2 && slice < Integer.MAX_VALUE / 2) {
+            return slice * 2;
+        }
+        if (elapsedNanos > TARGET_SLICE_NANOS * 2 && slice > 1) {
+            return slice / 2;
+        }
+        return slice;
+    }
+
+    private void finish(Status finalStatus) {
+        endNanos = System.nanoTime();
+        status = finalStatus;
+        finished.countDown();
+    }
+
+    /**
+     * Asks the job to stop. It stops before its next slice; ticks already simulated stay simulated.
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    /**
+     * Waits for the job to finish, however it finishes.
+     */
+    public void await() throws InterruptedException {
+        finished.await();
+    }
+
+    public boolean isFinished() {
+        return finished.getCount() == 0;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getTicksDone() {
+        return ticksDone;
+    }
+
+    /**
+     * @return why the job failed, or null if it didn't.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the average number of ticks simulated per second since the job started.
+     */
+    public double getTicksPerSecond() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        long end = isFinished() ? endNanos : System.nanoTime();
+        double seconds = (end - startNanos) / 1e9;
+        return seconds > 0 ? ticksDone / seconds : 0;
+    }
+
+    /**
+     * @return the estimated seconds until the job is done at the current rate, or -1 if there is no rate yet.
+     */
+    public double getEtaSeconds() {
+        if (isFinished()) {
+            return 0;
+        }
+        double rate = getTicksPerSecond();
+        return rate > 0 ? (length - ticksDone) / rate : -1;
+    }
+}
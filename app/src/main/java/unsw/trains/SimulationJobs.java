@@ -0,0 +1,71 @@
+package unsw.trains;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Runs simulation jobs for a controller one after another on a background thread, in the order they were
+ * submitted. Finished jobs are remembered so their outcome can be looked up, up to {@link #MAX_FINISHED_JOBS}.
+ */
+public class SimulationJobs {
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final TrainsController controller;
+    private final Lock lock;
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private final Map<String, SimulationJob> jobs = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulation-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param lock the lock anything else changing the controller holds while doing so. Jobs take it again straight
+     *        after each slice, so it should be fair, or a long job keeps everything else waiting until it is done.
+     */
+    public SimulationJobs(TrainsController controller, Lock lock) {
+        this.controller = controller;
+        this.lock = lock;
+    }
+
+    public SimulationJob submit(int length) {
+        SimulationJob job = new SimulationJob("job" + nextJobId.getAndIncrement(), length, controller, lock);
+        synchronized (jobs) {
+            forgetFinishedJobs();
+            jobs.put(job.getJobId(), job);
+        }
+        executor.execute(job);
+        return job;
+    }
+
+    /**
+     * @return the job with the given ID, or null if there isn't one.
+     */
+    public SimulationJob get(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    private void forgetFinishedJobs() {
+        int finished = 0;
+        for (SimulationJob job : jobs.values()) {
+            if (job.isFinished()) {
+                finished++;
+            }
+        }
+        Iterator<SimulationJob> oldestFirst = jobs.values().iterator();
+        while (finished >= MAX_FINISHED_JOBS && oldestFirst.hasNext()) {
+            if (oldestFirst.next().isFinished()) {
+                oldestFirst.remove();
+                finished--;
+            }
+        }
+    }
+}
@@ -1,20 +1,194 @@
 package unsw.trains;
 
 import java.util.Map;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.stream.IntStream;
 
 import unsw.stations.Station;
 import unsw.tracks.Track;
+import unsw.utils.IdTable;
 
 public class Simulator {
-    public static void simulateOneTick(Map<String, Train> trains, Map<String, Station> stations, Map<String, Track> tracks) {
-        List<Train> trainList = new ArrayList<>(trains.values());
-        Collections.sort(trainList, (t1, t2) -> t1.getTrainId().compareTo(t2.getTrainId()));
+    public static void simulateOneTick(TrainRegistry trains, IdTable<Station> stations, IdTable<Track> tracks) {
+        for (int i = 0; i < trains.size(); i++) {
+            trains.get(i).moveOneTick(stations, tracks);
+        }
+    }
+
+    /**
+     * Same result as simulateOneTick, but trains with nothing to do this tick except move are left out of the
+     * moveOneTick calls and moved together by the kernel afterwards. Trains only take loads off stations during a
+     * tick, so a train with no loads to exchange at either end of its leg at some point in the tick has none for
+     * the rest of it, and nothing the other trains do changes where it goes.
+     */
+    static void simulateOneTick(TrainRegistry trains, IdTable<Station> stations, IdTable<Track> tracks,
+            MovementKernel kernel) {
+        for (int i = 0; i < trains.size(); i++) {
+            Train train = trains.get(i);
+            if (isOnlyMoving(train, stations)) {
+                kernel.add(train);
+            } else {
+                train.moveOneTick(stations, tracks);
+            }
+        }
+        kernel.advance(stations);
+    }
+
+    private static boolean isOnlyMoving(Train train, IdTable<Station> stations) {
+        Station current = stations.get(train.getCurrentLocationHandle());
+        Station next = stations.get(train.getRoute().getNextStationHandle(train.getCurrentLocationHandle(),
+                train.isMovingForward()));
+        return current.getLoads().isEmpty() && next.getLoads().isEmpty() && !current.hasTransferWork(train)
+                && !next.hasTransferWork(train) && train.canDepart(current);
+    }
+
+    /**
+     * Same result as simulateOneTick, but spread over the fork-join pool.
+     *
+     * A train only interacts with other trains through the stations it unloads/loads at this tick: its current
+     * station and the next station on its route. Trains with no transfer work at either are pure movement and run
+     * independently. The rest are grouped by connected stations, and each group runs in trainId order, so every
+     * station still sees its trains in the same order as the sequential engine.
+     */
+    public static void simulateOneTickParallel(TrainRegistry trains, IdTable<Station> stations,
+            IdTable<Track> tracks) {
+        List<Train> trainList = trains.values();
 
-        for (Train train : trainList) {
+        // Phase 1: work out where each train interacts this tick (read-only, so safe to run in parallel)
+        int[] nextStationHandles = new int[trainList.size()];
+        boolean[] free = new boolean[trainList.size()];
+        IntStream.range(0, trainList.size()).parallel().forEach(i -> {
+            Train train = trainList.get(i);
+            Station current = stations.get(train.getCurrentLocationHandle());
+            int nextStationHandle = train.getRoute().getNextStationHandle(train.getCurrentLocationHandle(),
+                    train.isMovingForward());
+            Station next = stations.get(nextStationHandle);
+            nextStationHandles[i] = nextStationHandle;
+            // a free train still reads the load lists of both stations, so they must be empty for no other
+            // group to write to them concurrently
+            free[i] = current.getLoads().isEmpty() && next.getLoads().isEmpty() && !current.hasTransferWork(train)
+                    && !next.hasTransferWork(train);
+        });
+
+        // Phase 2: group trains that share a station with transfer work, keeping trainId order within a group
+        int[] parents = new int[stations.size()];
+        for (int handle = 0; handle < parents.length; handle++) {
+            parents[handle] = handle;
+        }
+        for (int i = 0; i < trainList.size(); i++) {
+            if (!free[i]) {
+                union(parents, trainList.get(i).getCurrentLocationHandle(), nextStationHandles[i]);
+            }
+        }
+        List<List<Train>> units = new ArrayList<>();
+        Map<Integer, List<Train>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < trainList.size(); i++) {
+            Train train = trainList.get(i);
+            if (free[i]) {
+                units.add(List.of(train));
+            } else {
+                int root = find(parents, train.getCurrentLocationHandle());
+                groups.computeIfAbsent(root, k -> new ArrayList<>()).add(train);
+            }
+        }
+        units.addAll(groups.values());
+
+        // Phase 3: groups touch disjoint stations, so they can all move at once
+        units.parallelStream().forEach(unit -> {
+            for (Train train : unit) {
+                train.moveOneTick(stations, tracks);
+            }
+        });
+    }
+
+    /**
+     * Simulates the given number of ticks, jumping trains whose motion is periodic straight to the end.
+     *
+     * A train with no loads whose route has no waiting loads can never pick anything up (other trains only take
+     * loads away from stations), so it shuttles or loops along its route forever and nothing it does affects other
+     * trains. Those trains are fast forwarded on their own; every other train is stepped as usual.
+     */
+    public static void simulateFastForward(int numberOfMinutes, TrainRegistry trains, IdTable<Station> stations,
+            IdTable<Track> tracks) {
+        TrainRegistry stepped = new TrainRegistry();
+        for (Train train : trains.values()) {
+            if (isPeriodic(train, stations)) {
+                fastForward(train, numberOfMinutes, stations, tracks);
+            } else {
+                stepped.add(train);
+            }
+        }
+        for (int i = 0; i < numberOfMinutes; i++) {
+            simulateOneTick(stepped, stations, tracks);
+        }
+    }
+
+    private static boolean isPeriodic(Train train, IdTable<Station> stations) {
+        if (!train.getLoads().isEmpty()) {
+            return false;
+        }
+        for (String stationId : train.getRoute().getStations()) {
+            Station station = stations.get(stationId);
+            if (station != null && !station.getLoads().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves a periodic train forward by the given number of ticks.
+     *
+     * Arriving at a station snaps the train exactly onto the station's position, so once the train is docked it
+     * repeats the same sequence of moves every time it is back at that station heading the same way. The train is
+     * stepped until it sees its first docked state again, which gives the exact period in ticks, then whole periods
+     * are skipped and the remainder is stepped.
+     */
+    private static void fastForward(Train train, int numberOfMinutes, IdTable<Station> stations,
+            IdTable<Track> tracks) {
+        String anchorLocationId = null;
+        boolean anchorForward = false;
+        long anchorTick = 0;
+        long tick = 0;
+        boolean skipped = false;
+        while (tick < numberOfMinutes) {
+            if (!skipped && isDocked(train, stations)) {
+                if (anchorLocationId == null) {
+                    anchorLocationId = train.getCurrentLocationId();
+                    anchorForward = train.isMovingForward();
+                    anchorTick = tick;
+                } else if (anchorLocationId.equals(train.getCurrentLocationId())
+                        && anchorForward == train.isMovingForward()) {
+                    long period = tick - anchorTick;
+                    tick += (numberOfMinutes - tick) / period * period;
+                    skipped = true;
+                    continue;
+                }
+            }
             train.moveOneTick(stations, tracks);
+            tick++;
+        }
+    }
+
+    private static boolean isDocked(Train train, IdTable<Station> stations) {
+        return train.isAt(stations.get(train.getCurrentLocationHandle()).getPosition());
+    }
+
+    private static int find(int[] parents, int stationHandle) {
+        while (parents[stationHandle] != stationHandle) {
+            parents[stationHandle] = parents[parents[stationHandle]];
+            stationHandle = parents[stationHandle];
+        }
+        return stationHandle;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[rootA] = rootB;
         }
     }
 }
@@ -0,0 +1,283 @@
+package unsw.trains;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import unsw.response.models.InfoResponseAssembler;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrackInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.stations.Station;
+import unsw.tracks.Track;
+import unsw.utils.IdTable;
+
+/**
+ * An immutable view of every train, station and track at the end of a tick. The controller publishes a new one
+ * whenever it changes, and queries read the latest without taking any lock.
+ *
+ * A new snapshot reuses the responses of the previous one for anything that hasn't changed since, going by the
+ * version counters on trains and stations, so an idle station is republished without assembling anything. Tracks
+ * never change once created, so their responses are only assembled for new tracks.
+ * Each response also remembers the tick after which it last changed, so pollers can ask for just the changes
+ * since the tick they last saw.
+ */
+public final class Snapshot {
+    private static final Snapshot EMPTY = new Snapshot(0, Table.empty(), Table.empty(), Table.empty());
+
+    private final long tick;
+    private final Table<TrainInfoResponse> trains;
+    private final Table<StationInfoResponse> stations;
+    private final Table<TrackInfoResponse> tracks;
+
+    /**
+     * A response along with the version of the entity it was assembled from.
+     */
+    private static final class Entry<R> {
+        private final long version;
+        private final long changedAfter;
+        private final R response;
+
+        Entry(long version, long changedAfter, R response) {
+            this.version = version;
+            this.changedAfter = changedAfter;
+            this.response = response;
+        }
+    }
+
+    /**
+     * The entries of one kind of entity, in the order they are listed. Entities are never removed, so while none
+     * are created the IDs and the index into the entries are shared from one snapshot to the next.
+     */
+    private static final class Table<R> {
+        private final List<String> ids;
+        private final Map<String, Integer> index;
+        private final Entry<R>[] entries;
+
+        private Table(List<String> ids, Map<String, Integer> index, Entry<R>[] entries) {
+            this.ids = ids;
+            this.index = index;
+            this.entries = entries;
+        }
+
+        static <R> Table<R> empty() {
+            return new Table<>(List.of(), Map.of(), newEntries(0));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <R> Entry<R>[] newEntries(int size) {
+            return (Entry<R>[]) new Entry<?>[size];
+        }
+
+        /**
+         * Assembles the entries for the given entities, in order, reusing the previous table's entry for any
+         * entity whose version hasn't moved on and whose previous response is still current.
+         * @param changedAfter the tick of the previous snapshot, recorded on entries assembled now.
+         */
+        static <T, R> Table<R> next(Table<R> previous, List<T> entities, Function<T, String> idOf,
+                ToLongFunction<T> versionOf, BiPredicate<T, R> stillCurrent, Function<T, R> assemble,
+                long changedAfter) {
+            boolean sameIds = previous.ids.size() == entities.size();
+            Entry<R>[] entries = newEntries(entities.size());
+            for (int i = 0; i < entries.length; i++) {
+                T entity = entities.get(i);
+                Entry<R> entry = sameIds ? previous.entries[i] : previous.find(idOf.apply(entity));
+                long version = versionOf.applyAsLong(entity);
+                if (entry == null || entry.version != version || !stillCurrent.test(entity, entry.response)) {
+                    entry = new Entry<>(version, changedAfter, assemble.apply(entity));
+                }
+                entries[i] = entry;
+            }
+            if (sameIds) {
+                return new Table<>(previous.ids, previous.index, entries);
+            }
+            List<String> ids = new ArrayList<>(entries.length);
+            Map<String, Integer> index = new HashMap<>();
+            for (T entity : entities) {
+                String id = idOf.apply(entity);
+                index.put(id, ids.size());
+                ids.add(id);
+            }
+            return new Table<>(Collections.unmodifiableList(ids), Collections.unmodifiableMap(index), entries);
+        }
+
+        Entry<R> find(String id) {
+            Integer i = index.get(id);
+            return i != null ? entries[i] : null;
+        }
+
+        R findResponse(String id) {
+            Entry<R> entry = find(id);
+            return entry != null ? entry.response : null;
+        }
+
+        List<R> responses() {
+            List<R> responses = new ArrayList<>(entries.length);
+            for (Entry<R> entry : entries) {
+                responses.add(entry.response);
+            }
+            return responses;
+        }
+
+        List<R> changedSince(long sinceTick) {
+            List<R> responses = new ArrayList<>();
+            for (Entry<R> entry : entries) {
+                if (entry.changedAfter >= sinceTick) {
+                    responses.add(entry.response);
+                }
+            }
+            return responses;
+        }
+    }
+
+    private Snapshot(long tick, Table<TrainInfoResponse> trains, Table<StationInfoResponse> stations,
+            Table<TrackInfoResponse> tracks) {
+        this.tick = tick;
+        this.trains = trains;
+        this.stations = stations;
+        this.tracks = tracks;
+    }
+
+    public static Snapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Captures the current state, reusing whatever is unchanged from the previous snapshot.
+     */
+    public static Snapshot next(Snapshot previous, long tick, TrainRegistry trainRegistry,
+            IdTable<Station> stationTable, IdTable<Track> trackTable) {
+        long changedAfter = previous.tick;
+        Table<TrainInfoResponse> trains = Table.next(previous.trains, trainRegistry.values(), Train::getTrainId,
+                Train::getVersion, (train, info) -> true, InfoResponseAssembler::toTrainInfoResponse, changedAfter);
+
+        // a station's response holds those of its trains, so it changes with them as well as with its version
+        Table<StationInfoResponse> stations = Table.next(previous.stations, stationTable.values(),
+                Station::getStationId, Station::getVersion,
+                (station, info) -> hasTrainResponses(info, station, trains),
+                station -> InfoResponseAssembler.toStationInfoResponse(station, trainInfos(station, trains)),
+                changedAfter);
+
+        Table<TrackInfoResponse> tracks = Table.next(previous.tracks, trackTable.values(), Track::getTrackId,
+                track -> 0, (track, info) -> true, InfoResponseAssembler::toTrackInfoResponse, changedAfter);
+        return new Snapshot(tick, trains, stations, tracks);
+    }
+
+    private static List<TrainInfoResponse> trainInfos(Station station, Table<TrainInfoResponse> trains) {
+        List<TrainInfoResponse> trainInfos = new ArrayList<>(station.getTrains().size());
+        for (Train train : station.getTrains()) {
+            trainInfos.add(trains.findResponse(train.getTrainId()));
+        }
+        return trainInfos;
+    }
+
+    /**
+     * @return whether the station's response holds exactly the current responses of the trains at it.
+     */
+    private static boolean hasTrainResponses(StationInfoResponse info, Station station,
+            Table<TrainInfoResponse> trains) {
+        List<TrainInfoResponse> trainInfos = info.getTrains();
+        List<Train> stationTrains = station.getTrains();
+        if (trainInfos.size() != stationTrains.size()) {
+            return false;
+        }
+        for (int i = 0; i < stationTrains.size(); i++) {
+            if (trainInfos.get(i) != trains.findResponse(stationTrains.get(i).getTrainId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of ticks simulated when the snapshot was taken.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public List<String> listTrainIds() {
+        return trains.ids;
+    }
+
+    public List<String> listStationIds() {
+        return stations.ids;
+    }
+
+    public List<String> listTrackIds() {
+        return tracks.ids;
+    }
+
+    /**
+     * @return the response of the train, or null if it isn't in this snapshot.
+     */
+    TrainInfoResponse findTrainInfo(String trainId) {
+        return trains.findResponse(trainId);
+    }
+
+    StationInfoResponse findStationInfo(String stationId) {
+        return stations.findResponse(stationId);
+    }
+
+    TrackInfoResponse findTrackInfo(String trackId) {
+        return tracks.findResponse(trackId);
+    }
+
+    public TrainInfoResponse getTrainInfo(String trainId) {
+        TrainInfoResponse info = findTrainInfo(trainId);
+        if (info == null) {
+            throw new IllegalArgumentException("No such train.");
+        }
+        return info;
+    }
+
+    public StationInfoResponse getStationInfo(String stationId) {
+        StationInfoResponse info = findStationInfo(stationId);
+        if (info == null) {
+            throw new IllegalArgumentException("No such station.");
+        }
+        return info;
+    }
+
+    public TrackInfoResponse getTrackInfo(String trackId) {
+        TrackInfoResponse info = findTrackInfo(trackId);
+        if (info == null) {
+            throw new IllegalArgumentException("No such track.");
+        }
+        return info;
+    }
+
+    public List<TrainInfoResponse> listTrainInfos() {
+        return trains.responses();
+    }
+
+    public List<StationInfoResponse> listStationInfos() {
+        return stations.responses();
+    }
+
+    public List<TrackInfoResponse> listTrackInfos() {
+        return tracks.responses();
+    }
+
+    /**
+     * Lists the trains that changed after the given tick, in the same order as {@link #listTrainIds()}. Anything
+     * changed between two ticks, such as a created train, counts as changed after the earlier one. Asking with the
+     * tick of the last snapshot seen never misses a change, though it may repeat some.
+     */
+    public List<TrainInfoResponse> listTrainInfosChangedSince(long sinceTick) {
+        return trains.changedSince(sinceTick);
+    }
+
+    public List<StationInfoResponse> listStationInfosChangedSince(long sinceTick) {
+        return stations.changedSince(sinceTick);
+    }
+
+    public List<TrackInfoResponse> listTrackInfosChangedSince(long sinceTick) {
+        return tracks.changedSince(sinceTick);
+    }
+}
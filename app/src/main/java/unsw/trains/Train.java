@@ -1,49 +1,88 @@
 package unsw.trains;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
+import unsw.utils.FixedPoint;
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 import unsw.routes.Route;
+import unsw.routes.RouteLeg;
 import unsw.stations.Station;
 import unsw.tracks.Track;
+import unsw.loads.Cargo;
 import unsw.loads.Load;
+import unsw.loads.Passenger;
 
 public abstract class Train {
     private String trainId;
-    private Position position;
-    private String currentLocationId;
     private Route route;
-    private Boolean movingForward = true;
+    private TrainStateStore states;
+    private int slot;
 
     private List<Load> loads = new ArrayList<>();
 
-    public Train(String trainId, Position position, String currentLocationId, Route route) {
+    // The weight on board, kept up to date as loads come and go, and the speed worked out from it. The speed is
+    // NaN while it needs working out again.
+    private double passengerWeight = 0;
+    private double cargoWeight = 0;
+    private double speed = Double.NaN;
+    // the speed and arrival tolerance in micro-units for the fixed-point mode, worked out along with the speed
+    private long stepMicros;
+    private long toleranceMicros;
+
+    public Train(String trainId, Position position, String currentLocationId, Route route, TrainStateStore states) {
         this.trainId = trainId;
-        this.position = position;
-        this.currentLocationId = currentLocationId;
         this.route = route;
+        this.states = states;
+        this.slot = states.allocate(position, currentLocationId);
     }
 
     public String getTrainId() {
         return trainId;
     }
 
+    /**
+     * @return the train's slot in the TrainStateStore holding its position, location and direction.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
     public Position getPosition() {
-        return position;
+        return new Position(states.getX(slot), states.getY(slot));
     }
 
     public void setPosition(Position position) {
-        this.position = position;
+        states.setPosition(slot, position.getX(), position.getY());
+    }
+
+    /**
+     * @return true if the train is exactly on the given position.
+     */
+    public boolean isAt(Position position) {
+        return states.getX(slot) == position.getX() && states.getY(slot) == position.getY();
     }
 
     public String getCurrentLocationId() {
-        return currentLocationId;
+        return states.getLocationId(slot);
     }
 
     public void setCurrentLocationId(String currentLocationId) {
-        this.currentLocationId = currentLocationId;
+        states.setLocationId(slot, currentLocationId);
+    }
+
+    /**
+     * @return the handle of the station the train is at or last left.
+     */
+    public int getCurrentLocationHandle() {
+        return states.getLocationIndex(slot);
+    }
+
+    public void setCurrentLocationHandle(int currentLocationHandle) {
+        states.setLocationIndex(slot, currentLocationHandle);
     }
 
     public Route getRoute() {
@@ -51,11 +90,11 @@ public abstract class Train {
     }
 
     public boolean isMovingForward() {
-        return movingForward;
+        return states.isMovingForward(slot);
     }
 
     public void setMovingForward(boolean movingForward) {
-        this.movingForward = movingForward;
+        states.setMovingForward(slot, movingForward);
     }
 
     public List<Load> getLoads() {
@@ -64,19 +103,298 @@ public abstract class Train {
 
     public void addLoad(Load load) {
         loads.add(load);
+        loadAdded(load);
+    }
+
+    /**
+     * Takes the given loads off the train.
+     */
+    public void removeLoads(Collection<Load> delivered) {
+        if (getLoads().removeAll(delivered)) {
+            loadsRemoved();
+        }
+    }
+
+    /**
+     * Subclasses that keep their own loads call this whenever they take one on.
+     */
+    protected void loadAdded(Load load) {
+        addWeight(load);
+        speed = Double.NaN;
+        markChanged();
+    }
+
+    /**
+     * Subclasses that keep their own loads call this whenever they take some off.
+     */
+    protected void loadsRemoved() {
+        // removing already goes through the loads, so add up what's left rather than taking away
+        passengerWeight = 0;
+        cargoWeight = 0;
+        for (Load load : getLoads()) {
+            addWeight(load);
+        }
+        speed = Double.NaN;
+        markChanged();
+    }
+
+    private void addWeight(Load load) {
+        if (load instanceof Passenger) {
+            passengerWeight += load.getWeight();
+        } else if (load instanceof Cargo) {
+            cargoWeight += load.getWeight();
+        }
+    }
+
+    public double getPassengerWeight() {
+        return passengerWeight;
+    }
+
+    public double getCargoWeight() {
+        return cargoWeight;
+    }
+
+    /**
+     * @return the weight of everything on board.
+     */
+    public double getLoadWeight() {
+        return passengerWeight + cargoWeight;
+    }
+
+    /**
+     * @return a counter that goes up whenever the train's position, location or loads change.
+     */
+    public long getVersion() {
+        return states.getVersion(slot);
+    }
+
+    private void markChanged() {
+        states.touch(slot);
+    }
+
+    /**
+     * @return the speed for the weight on board, worked out again only once the weight has changed.
+     */
+    public double getSpeed() {
+        if (Double.isNaN(speed)) {
+            speed = computeSpeed();
+            stepMicros = FixedPoint.toMicros(speed);
+            toleranceMicros = FixedPoint.toMicros(getArrivalTolerance());
+        }
+        return speed;
+    }
+
+    /**
+     * @return the speed in whole micro-units, how far the train steps each tick in the fixed-point mode.
+     */
+    public long getStepMicros() {
+        getSpeed();
+        return stepMicros;
+    }
+
+    /**
+     * @return the arrival tolerance in whole micro-units.
+     */
+    public long getArrivalToleranceMicros() {
+        getSpeed();
+        return toleranceMicros;
+    }
+
+    protected abstract double computeSpeed();
+
+    /**
+     * @return the speed to move at this tick, recorded in the state store alongside the position.
+     */
+    protected double currentSpeed() {
+        double speed = getSpeed();
+        states.setSpeed(slot, speed);
+        return speed;
     }
 
-    public abstract double getSpeed();
+    /**
+     * @return how close (in km) the train must be to its next station for the remaining distance to count as
+     *         covered by this tick's movement.
+     */
+    public double getArrivalTolerance() {
+        return 0;
+    }
+
+    /**
+     * @return true if the train is allowed to leave the station it is currently at.
+     */
+    public boolean canDepart(Station currentStation) {
+        return true;
+    }
+
+    /**
+     * Moves the train the given distance towards the station, or onto it if that is within reach. The station is the
+     * end of the route leg the train is on, so how far it has come and where it ends up are read off the leg's
+     * precomputed direction rather than working out the distance to the station again.
+     * @return true if the train arrived.
+     */
+    protected boolean advanceTowards(Station station, double speed) {
+        RouteLeg leg = route.getLeg(getCurrentLocationHandle(), isMovingForward());
+        if (states.isFixedPoint()) {
+            return advanceTowardsFixed(leg, station);
+        }
+        double progress = leg.progressOf(states.getX(slot), states.getY(slot));
+        if (speed >= leg.getLength() - progress - getArrivalTolerance()) {
+            arriveAt(station);
+            return true;
+        }
+        progress += speed;
+        states.setPosition(slot, leg.xAt(progress), leg.yAt(progress));
+        return false;
+    }
+
+    /**
+     * advanceTowards in the fixed-point mode. The step, what is left of the leg and the arrival tolerance are all
+     * whole micro-units, so whether the train arrives is decided exactly, and the same way by every engine.
+     */
+    private boolean advanceTowardsFixed(RouteLeg leg, Station station) {
+        long progress = states.getProgress(slot);
+        long step = getStepMicros();
+        if (step >= leg.getLengthMicros() - progress - getArrivalToleranceMicros()) {
+            arriveAt(station);
+            states.setProgress(slot, 0);
+            return true;
+        }
+        moveAlong(leg, progress + step);
+        return false;
+    }
+
+    private void arriveAt(Station station) {
+        Position target = station.getPosition();
+        states.setPosition(slot, target.getX(), target.getY());
+        setCurrentLocationHandle(station.getHandle());
+    }
+
+    private void moveAlong(RouteLeg leg, long progress) {
+        states.setProgress(slot, progress);
+        states.setPosition(slot, FixedPoint.fromMicros(leg.xAtMicros(progress)),
+                FixedPoint.fromMicros(leg.yAtMicros(progress)));
+    }
+
+    /**
+     * @return true if the train moves in whole micro-units along its legs.
+     */
+    public boolean isFixedPoint() {
+        return states.isFixedPoint();
+    }
+
+    /**
+     * @return how far in micro-units the train is along the leg it is on, in the fixed-point mode.
+     */
+    public long getLegProgress() {
+        return states.getProgress(slot);
+    }
+
+    /**
+     * Puts the train the given number of micro-units along the leg it is on, in the fixed-point mode.
+     */
+    public void moveAlongLeg(long progress) {
+        moveAlong(route.getLeg(getCurrentLocationHandle(), isMovingForward()), progress);
+    }
 
-    public abstract void moveOneTick(Map<String, Station> stations, Map<String, Track> tracks);
+    /**
+     * Works out how far along its leg the train is in micro-units, as the fixed-point mode is switched on, and
+     * moves it onto that point. A train at a station stays exactly on it.
+     */
+    public void enterFixedPoint() {
+        RouteLeg leg = route.getLeg(getCurrentLocationHandle(), isMovingForward());
+        long progress = FixedPoint.toMicros(leg.progressOf(states.getX(slot), states.getY(slot)));
+        progress = Math.max(0, Math.min(progress, leg.getLengthMicros()));
+        if (progress == 0) {
+            states.setProgress(slot, 0);
+        } else {
+            moveAlong(leg, progress);
+        }
+    }
+
+    /**
+     * @return where the train will be after the given number of ticks if it keeps its current speed, leaving each
+     *         station the tick after it arrives. Loads changing the speed and cargo trains held at a station aren't
+     *         foreseen. The train goes round its route one trip after another, so the ticks are taken round the
+     *         trip and the leg found by binary search over the ticks taken to reach the end of each leg.
+     */
+    public Position predictPosition(long ticks) {
+        RouteLeg leg = route.getLeg(getCurrentLocationHandle(), isMovingForward());
+        double progress = states.isFixedPoint() ? states.getProgress(slot)
+                : leg.progressOf(states.getX(slot), states.getY(slot));
+        if (ticks <= 0 || getSpeed() <= 0 || states.isFixedPoint() && getStepMicros() <= 0) {
+            return getPosition();
+        }
+        long arrival = ticksToArrive(leg, progress);
+        if (ticks < arrival) {
+            return positionAlong(leg, progress, ticks);
+        }
+
+        ticks -= arrival;
+        RouteLeg[] trip = route.legsOfTrip(leg.getToHandle(),
+                route.directionOnArrival(leg.getToHandle(), isMovingForward()));
+        long[] arrivals = new long[trip.length];
+        long elapsed = 0;
+        for (int i = 0; i < trip.length; i++) {
+            elapsed += ticksToArrive(trip[i], 0);
+            arrivals[i] = elapsed;
+        }
+        ticks %= elapsed;
+        // arriving at the end of one leg is the start of the next
+        int found = Arrays.binarySearch(arrivals, ticks);
+        int index = found >= 0 ? found + 1 : -found - 1;
+        return positionAlong(trip[index], 0, ticks - (index == 0 ? 0 : arrivals[index - 1]));
+    }
+
+    /**
+     * @param progress how far along the leg the train starts, in micro-units in the fixed-point mode.
+     */
+    private long ticksToArrive(RouteLeg leg, double progress) {
+        if (states.isFixedPoint()) {
+            return leg.ticksToArriveMicros((long) progress, getStepMicros(), getArrivalToleranceMicros());
+        }
+        return leg.ticksToArrive(progress, getSpeed(), getArrivalTolerance());
+    }
+
+    private Position positionAlong(RouteLeg leg, double progress, long moves) {
+        if (states.isFixedPoint()) {
+            long micros = (long) progress + moves * getStepMicros();
+            return new Position(FixedPoint.fromMicros(leg.xAtMicros(micros)),
+                    FixedPoint.fromMicros(leg.yAtMicros(micros)));
+        }
+        return leg.positionAfter(progress, getSpeed(), moves);
+    }
+
+    /**
+     * @return true if the train carries a load bound for the station with the given handle.
+     */
+    public boolean carriesLoadFor(int stationHandle) {
+        List<Load> onBoard = getLoads();
+        for (int i = 0; i < onBoard.size(); i++) {
+            if (onBoard.get(i).getDestinationHandle() == stationHandle) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param stations stations by handle.
+     * @param tracks tracks by handle.
+     */
+    public abstract void moveOneTick(IdTable<Station> stations, IdTable<Track> tracks);
+
+    /**
+     * Turns the train round once it arrives at the end of its route heading the given way.
+     */
+    protected void turnAroundIfNeeded(boolean forward) {
+        updateDirectionIfNeeded(forward);
+    }
 
     protected void updateDirectionIfNeeded(boolean forward) {
-        List<String> routeStations = getRoute().getStations();
-        String firstStation = routeStations.get(0);
-        String lastStation = routeStations.get(routeStations.size() - 1);
-        if (getCurrentLocationId().equals(firstStation) && !forward) {
+        int location = getCurrentLocationHandle();
+        if (location == getRoute().getFirstStationHandle() && !forward) {
             setMovingForward(true);
-        } else if (getCurrentLocationId().equals(lastStation) && forward) {
+        } else if (location == getRoute().getLastStationHandle() && forward) {
             setMovingForward(false);
         }
     }
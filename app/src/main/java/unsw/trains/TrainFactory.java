@@ -1,17 +1,19 @@
 package unsw.trains;
 
 import java.util.List;
-import java.util.Map;
 
 import unsw.exceptions.InvalidRouteException;
+import unsw.routes.LegTable;
 import unsw.routes.Route;
 import unsw.routes.RouteType;
 import unsw.stations.Station;
-import unsw.tracks.Track;
+import unsw.tracks.TrackGraph;
+import unsw.utils.IdTable;
 
 public class TrainFactory {
     public static Train createTrain(String trainId, String type, Station startStation, List<String> route,
-            Map<String, Track> tracks) throws InvalidRouteException {
+            IdTable<Station> stations, TrackGraph tracks, LegTable legs, TrainStateStore states)
+            throws InvalidRouteException {
         if (!route.contains(startStation.getStationId())) {
             throw new InvalidRouteException("Starting station is not in the route: " + startStation.getStationId());
         }
@@ -22,22 +24,25 @@ public class TrainFactory {
             throw new InvalidRouteException("Cyclical route is not allowed for " + type);
         }
 
-        Route trainRoute = new Route(route, routeType);
+        Route trainRoute = new Route(route, routeType, stations, legs);
 
         switch (type) {
         case "PassengerTrain":
-            return new PassengerTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute);
+            return new PassengerTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute,
+                    states);
         case "CargoTrain":
-            return new CargoTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute);
+            return new CargoTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute,
+                    states);
         case "BulletTrain":
-            return new BulletTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute);
+            return new BulletTrain(trainId, startStation.getPosition(), startStation.getStationId(), trainRoute,
+                    states);
         default:
             throw new IllegalArgumentException("Invalid train type: " + type);
         }
     }
 
-    public static void validateTrainCreation(String trainId, Map<String, Train> trains) {
-        if (trains.containsKey(trainId)) {
+    public static void validateTrainCreation(String trainId, TrainRegistry trains) {
+        if (trains.contains(trainId)) {
             throw new IllegalArgumentException("Train ID already exists: " + trainId);
 
         }
@@ -0,0 +1,93 @@
+package unsw.trains;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All trains known to the controller, kept in trainId order as they are created so the simulation can walk them
+ * in order every tick without sorting or copying.
+ */
+public class TrainRegistry {
+    private final Map<String, Train> trainsById = new HashMap<>();
+    private Train[] ordered = new Train[16];
+    private int size = 0;
+
+    public void add(Train train) {
+        if (trainsById.containsKey(train.getTrainId())) {
+            throw new IllegalArgumentException("Train ID already exists: " + train.getTrainId());
+        }
+        int index = insertionIndex(train.getTrainId());
+        if (size == ordered.length) {
+            ordered = Arrays.copyOf(ordered, size * 2);
+        }
+        System.arraycopy(ordered, index, ordered, index + 1, size - index);
+        ordered[index] = train;
+        size++;
+        trainsById.put(train.getTrainId(), train);
+    }
+
+    public Train get(String trainId) {
+        return trainsById.get(trainId);
+    }
+
+    /**
+     * @return the train at the given position in trainId order.
+     */
+    public Train get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No train at index " + index);
+        }
+        return ordered[index];
+    }
+
+    public boolean contains(String trainId) {
+        return trainsById.containsKey(trainId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a read-only view of the trains in trainId order.
+     */
+    public List<Train> values() {
+        return new AbstractList<Train>() {
+            @Override
+            public Train get(int index) {
+                return TrainRegistry.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public List<String> ids() {
+        List<String> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ids.add(ordered[i].getTrainId());
+        }
+        return ids;
+    }
+
+    private int insertionIndex(String trainId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ordered[mid].getTrainId().compareTo(trainId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
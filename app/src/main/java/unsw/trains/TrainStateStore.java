@@ -0,0 +1,172 @@
+package unsw.trains;
+
+import java.util.Arrays;
+
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+/**
+ * Columnar storage for the per-train state the simulation touches every tick. Each train owns one slot, and
+ * {@link Train} reads and writes its state through it, so the engines can walk the columns directly instead of
+ * chasing objects around the heap.
+ */
+public class TrainStateStore {
+    public static final byte FORWARD = 1;
+    public static final byte BACKWARD = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private int[] locationIndex = new int[INITIAL_CAPACITY];
+    private byte[] direction = new byte[INITIAL_CAPACITY];
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private long[] version = new long[INITIAL_CAPACITY];
+    // In the fixed-point mode a train's distance along its current leg in micro-units, which its position is
+    // worked out from. Unused otherwise.
+    private long[] progress = new long[INITIAL_CAPACITY];
+    private boolean fixedPoint = false;
+    private int size = 0;
+
+    private final IdTable<?> locations;
+
+    /**
+     * @param locations the table handing out location (station) handles.
+     */
+    public TrainStateStore(IdTable<?> locations) {
+        this.locations = locations;
+    }
+
+    /**
+     * Reserves a slot for a new train, starting at the given location and moving forward.
+     * @return the slot of the new train.
+     */
+    public int allocate(Position position, String locationId) {
+        if (size == x.length) {
+            int capacity = size * 2;
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            locationIndex = Arrays.copyOf(locationIndex, capacity);
+            direction = Arrays.copyOf(direction, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            version = Arrays.copyOf(version, capacity);
+            progress = Arrays.copyOf(progress, capacity);
+        }
+        int slot = size++;
+        x[slot] = position.getX();
+        y[slot] = position.getY();
+        locationIndex[slot] = locations.intern(locationId);
+        direction[slot] = FORWARD;
+        speed[slot] = 0;
+        version[slot] = 0;
+        progress[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Gives back the most recently allocated slot, for a train that failed to be created.
+     */
+    public void discard(int slot) {
+        if (slot == size - 1) {
+            size--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int slot) {
+        return x[slot];
+    }
+
+    public double getY(int slot) {
+        return y[slot];
+    }
+
+    public void setPosition(int slot, double newX, double newY) {
+        if (x[slot] != newX || y[slot] != newY) {
+            x[slot] = newX;
+            y[slot] = newY;
+            version[slot]++;
+        }
+    }
+
+    /**
+     * @return the handle of the station the train is at or last left.
+     */
+    public int getLocationIndex(int slot) {
+        return locationIndex[slot];
+    }
+
+    public String getLocationId(int slot) {
+        return locations.idOf(locationIndex[slot]);
+    }
+
+    public void setLocationId(int slot, String locationId) {
+        setLocationIndex(slot, locations.intern(locationId));
+    }
+
+    public void setLocationIndex(int slot, int index) {
+        if (locationIndex[slot] != index) {
+            locationIndex[slot] = index;
+            version[slot]++;
+        }
+    }
+
+    public boolean isMovingForward(int slot) {
+        return direction[slot] == FORWARD;
+    }
+
+    public void setMovingForward(int slot, boolean movingForward) {
+        direction[slot] = movingForward ? FORWARD : BACKWARD;
+    }
+
+    /**
+     * @return the speed the train last moved at.
+     */
+    public double getSpeed(int slot) {
+        return speed[slot];
+    }
+
+    public void setSpeed(int slot, double newSpeed) {
+        speed[slot] = newSpeed;
+    }
+
+    /**
+     * @return true if trains move in whole micro-units along their legs rather than in doubles.
+     */
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    /**
+     * @return how far in micro-units the train is along its current leg, in the fixed-point mode.
+     */
+    public long getProgress(int slot) {
+        return progress[slot];
+    }
+
+    public void setProgress(int slot, long micros) {
+        progress[slot] = micros;
+    }
+
+    /**
+     * @return a counter that goes up whenever the train's position, location or loads change, so anything
+     *         derived from the train only needs rebuilding when it differs from the value seen last time.
+     */
+    public long getVersion(int slot) {
+        return version[slot];
+    }
+
+    /**
+     * Records a change to the train that isn't held in the store, e.g. to its loads.
+     */
+    public void touch(int slot) {
+        version[slot]++;
+    }
+}
@@ -1,20 +1,27 @@
 package unsw.trains;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import unsw.exceptions.InvalidRouteException;
-import unsw.response.models.InfoResponseAssembler;
 import unsw.response.models.StationInfoResponse;
 import unsw.response.models.TrackInfoResponse;
 import unsw.response.models.TrainInfoResponse;
+import unsw.routes.LegTable;
+import unsw.stations.LoadingPolicy;
 import unsw.stations.Station;
 import unsw.stations.StationFactory;
 import unsw.stations.StationValidator;
 import unsw.tracks.Track;
 import unsw.tracks.TrackFactory;
+import unsw.tracks.TrackGraph;
+import unsw.utils.IdTable;
 import unsw.utils.Position;
 import unsw.loads.Passenger;
 import unsw.loads.Cargo;
@@ -34,22 +41,47 @@ import unsw.loads.Cargo;
  */
 @SuppressWarnings("unused")
 public class TrainsController {
-    // Add any fields here if necessary
-    private Map<String, Station> stations = new HashMap<>();
-    private Map<String, Track> tracks = new HashMap<>();
-    private Map<String, Train> trains = new HashMap<>();
+    private static final Logger LOG = LoggerFactory.getLogger(TrainsController.class);
+
+    // Every station, track and train gets a dense int handle when it is created; string IDs are only used to
+    // look things up at this boundary. A train's handle is its slot in trainStates.
+    private IdTable<Station> stations = new IdTable<>();
+    private IdTable<Track> tracks = new IdTable<>();
+    // which stations the tracks join, so route checks don't go through every track
+    private TrackGraph trackGraph = new TrackGraph(stations);
+    // the geometry of each stretch between stations a route runs along, shared by every train running along it
+    private LegTable legs = new LegTable(stations);
+    private TrainRegistry trains = new TrainRegistry();
+    private TrainStateStore trainStates = new TrainStateStore(stations);
+    private SimulationEngine engine = SimulationEngine.SEQUENTIAL;
+    private LoadingPolicy loadingPolicy = LoadingPolicy.LEXICOGRAPHIC;
+    private EventSimulator eventSimulator = new EventSimulator();
+    // moves the trains that are only moving this tick together, when switched on
+    private MovementKernel movementKernel = null;
+    private long tick = 0;
+
+    // Queries are answered from the latest snapshot, so they never touch the live state and need no lock. It is
+    // republished at the end of each simulate call; creates only mark it out of date, and it is brought up to date
+    // by the next read, so setting up a network one create at a time doesn't rebuild it after each one.
+    private volatile Snapshot snapshot = Snapshot.empty();
+    private volatile boolean unpublished = false;
+    private List<Consumer<Snapshot>> publishListeners = new CopyOnWriteArrayList<>();
 
     public void createStation(String stationId, String type, double x, double y) {
         StationFactory.validateStationCreation(stationId, stations);
         Position pos = new Position(x, y);
-        Station station = StationFactory.createStation(stationId, type, pos);
+        Station station = StationFactory.createStation(stationId, stations.intern(stationId), type, pos);
+        station.setDefaultLoadingPolicy(loadingPolicy);
         stations.put(stationId, station);
+        unpublished = true;
     }
 
     public void createTrack(String trackId, String fromStationId, String toStationId) {
         TrackFactory.validateTrackCreation(trackId, fromStationId, toStationId, tracks, stations);
-        Track track = TrackFactory.createTrack(trackId, fromStationId, toStationId);
+        Track track = TrackFactory.createTrack(trackId, tracks.intern(trackId), fromStationId, toStationId);
         tracks.put(trackId, track);
+        trackGraph.add(track);
+        unpublished = true;
     }
 
     public void createTrain(String trainId, String type, String stationId, List<String> route)
@@ -60,65 +92,279 @@ public class TrainsController {
 
         Station startStation = stations.get(stationId);
 
-        Train train = TrainFactory.createTrain(trainId, type, startStation, route, tracks);
+        Train train = TrainFactory.createTrain(trainId, type, startStation, route, stations, trackGraph, legs,
+                trainStates);
 
-        startStation.addTrain(train);
+        try {
+            startStation.addTrain(train);
+        } catch (IllegalStateException e) {
+            trainStates.discard(train.getSlot());
+            throw e;
+        }
 
-        trains.put(trainId, train);
+        trains.add(train);
+        unpublished = true;
     }
 
     public List<String> listStationIds() {
-        return new ArrayList<>(stations.keySet());
+        return getSnapshot().listStationIds();
     }
 
     public List<String> listTrackIds() {
-        return new ArrayList<>(tracks.keySet());
+        return getSnapshot().listTrackIds();
     }
 
     public List<String> listTrainIds() {
-        return new ArrayList<>(trains.keySet());
+        return getSnapshot().listTrainIds();
     }
 
     public TrainInfoResponse getTrainInfo(String trainId) {
+        return getSnapshot().getTrainInfo(trainId);
+    }
+
+    /**
+     * @return where the train will be the given number of ticks from now, if nothing it carries changes.
+     */
+    public Position predictTrainPosition(String trainId, long ticks) {
         Train train = trains.get(trainId);
-        return InfoResponseAssembler.toTrainInfoResponse(train);
+        if (train == null) {
+            throw new IllegalArgumentException("Train does not exist: " + trainId);
+        }
+        eventSimulator.materialize();
+        return train.predictPosition(ticks);
     }
 
     public StationInfoResponse getStationInfo(String stationId) {
-        Station station = stations.get(stationId);
-        return InfoResponseAssembler.toStationInfoResponse(station);
+        return getSnapshot().getStationInfo(stationId);
     }
 
     public TrackInfoResponse getTrackInfo(String trackId) {
-        Track track = tracks.get(trackId);
-        return InfoResponseAssembler.toTrackInfoResponse(track);
+        return getSnapshot().getTrackInfo(trackId);
+    }
+
+    /**
+     * @return the state as of the last change. Use this to answer several queries from the same point in time.
+     *         Anything created since the last publish is published first, so like a change this must not run
+     *         alongside one.
+     */
+    public Snapshot getSnapshot() {
+        if (unpublished) {
+            publish();
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot as last published, without anything created since. This never touches the live state,
+     *         so it can be read alongside a change.
+     */
+    public Snapshot getPublishedSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return whether anything has been created since the snapshot was last published.
+     */
+    public boolean hasUnpublishedChanges() {
+        return unpublished;
+    }
+
+    /**
+     * Registers a listener called with every snapshot as it is published, on the thread making the change or, for
+     * creates, the first read after them. While any listener is registered a snapshot is published after every
+     * tick, rather than once per call to simulate.
+     */
+    public void addPublishListener(Consumer<Snapshot> listener) {
+        publishListeners.add(listener);
+    }
+
+    public void removePublishListener(Consumer<Snapshot> listener) {
+        publishListeners.remove(listener);
+    }
+
+    private void publish() {
+        eventSimulator.materialize();
+        snapshot = Snapshot.next(snapshot, tick, trains, stations, tracks);
+        unpublished = false;
+        for (Consumer<Snapshot> listener : publishListeners) {
+            listener.accept(snapshot);
+        }
+    }
+
+    public SimulationEngine getSimulationEngine() {
+        return engine;
+    }
+
+    public void setSimulationEngine(SimulationEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("Simulation engine must not be null");
+        }
+        eventSimulator.materialize();
+        this.engine = engine;
+    }
+
+    public boolean isFixedPointPositions() {
+        return trainStates.isFixedPoint();
+    }
+
+    /**
+     * Switches trains between moving in doubles and in whole micro-units (millionths of a km). In micro-units a
+     * train arrives exactly when its step covers what is left of the leg, and every engine gives the same
+     * positions. Trains part-way along a leg are moved onto the nearest micro-unit when it is switched on.
+     */
+    public void setFixedPointPositions(boolean fixedPoint) {
+        eventSimulator.materialize();
+        if (fixedPoint && !trainStates.isFixedPoint()) {
+            for (Train train : trains.values()) {
+                train.enterFixedPoint();
+            }
+        }
+        trainStates.setFixedPoint(fixedPoint);
+        publish();
+    }
+
+    public boolean isVectorMovement() {
+        return movementKernel != null;
+    }
+
+    /**
+     * Switches the sequential engine between moving every train with its own moveOneTick and moving the trains
+     * with nothing else to do that tick together in one batch. The batch uses the Vector API when built with
+     * -PvectorApi, which also runs with the jdk.incubator.vector module, and a plain loop doing the same arithmetic
+     * otherwise. Either way the results are the same as without it.
+     */
+    public void setVectorMovement(boolean vectorMovement) {
+        movementKernel = vectorMovement ? new MovementKernel(trainStates) : null;
+    }
+
+    public LoadingPolicy getLoadingPolicy() {
+        return loadingPolicy;
+    }
+
+    /**
+     * Sets the policy every station loads trains by, other than those given their own.
+     */
+    public void setLoadingPolicy(LoadingPolicy loadingPolicy) {
+        if (loadingPolicy == null) {
+            throw new IllegalArgumentException("Loading policy must not be null");
+        }
+        eventSimulator.materialize();
+        this.loadingPolicy = loadingPolicy;
+        for (Station station : stations.values()) {
+            station.setDefaultLoadingPolicy(loadingPolicy);
+        }
+    }
+
+    /**
+     * Sets the policy one station loads trains by, or with null has it follow the controller's again.
+     */
+    public void setStationLoadingPolicy(String stationId, LoadingPolicy loadingPolicy) {
+        StationFactory.validateStationExists(stationId, stations);
+        eventSimulator.materialize();
+        stations.get(stationId).setLoadingPolicy(loadingPolicy, this.loadingPolicy);
     }
 
     public void simulate() {
-        Simulator.simulateOneTick(trains, stations, tracks);
+        step();
+        publish();
+    }
+
+    private void step() {
+        switch (engine) {
+        case PARALLEL:
+            Simulator.simulateOneTickParallel(trains, stations, tracks);
+            break;
+        case EVENT_DRIVEN:
+            eventSimulator.simulate(1, trains, stations, tracks);
+            break;
+        case FAST_FORWARD:
+            Simulator.simulateFastForward(1, trains, stations, tracks);
+            break;
+        case SEQUENTIAL:
+        default:
+            if (movementKernel != null) {
+                Simulator.simulateOneTick(trains, stations, tracks, movementKernel);
+            } else {
+                Simulator.simulateOneTick(trains, stations, tracks);
+            }
+            break;
+        }
+        tick++;
     }
 
     /**
-     * Simulate for the specified number of minutes. You should NOT modify
-     * this function.
+     * Simulate for the specified number of minutes. The event driven engine skips the ticks where trains are only
+     * moving between stations, fast forward skips whole route periods of trains with nothing to load, every other
+     * engine steps through them one at a time.
      */
     public void simulate(int numberOfMinutes) {
+        if (engine == SimulationEngine.EVENT_DRIVEN) {
+            eventSimulator.simulate(numberOfMinutes, trains, stations, tracks);
+            tick += numberOfMinutes;
+            publish();
+            return;
+        }
+        if (engine == SimulationEngine.FAST_FORWARD) {
+            Simulator.simulateFastForward(numberOfMinutes, trains, stations, tracks);
+            tick += numberOfMinutes;
+            publish();
+            return;
+        }
+        // the snapshot is only wanted once at the end, unless someone is listening for every tick
+        boolean everyTick = !publishListeners.isEmpty();
         for (int i = 0; i < numberOfMinutes; i++) {
-            simulate();
+            step();
+            if (everyTick) {
+                publish();
+            }
+        }
+        if (!everyTick) {
+            publish();
         }
     }
 
+    /**
+     * Creates every item in turn, carrying on past any that fail. The items can be read lazily, e.g. straight
+     * from a request body; if reading fails the items before it are still created. The snapshot is published
+     * once at the end.
+     * @return how many were created, and why the rest weren't.
+     */
+    public BulkResult createAll(Iterator<? extends BulkItem> items) {
+        int created = 0;
+        int index = 0;
+        List<BulkResult.ItemError> errors = new ArrayList<>();
+        try {
+            for (; items.hasNext(); index++) {
+                BulkItem item = items.next();
+                try {
+                    item.create(this);
+                    created++;
+                } catch (Exception e) {
+                    errors.add(new BulkResult.ItemError(index, item.getId(), e));
+                }
+            }
+        } catch (RuntimeException e) {
+            // the items can't be read past this one
+            errors.add(new BulkResult.ItemError(index, null, e));
+        } finally {
+            publish();
+        }
+        return new BulkResult(created, errors);
+    }
+
     public void createPassenger(String startStationId, String destStationId, String passengerId) {
         Station station = stations.get(startStationId);
         StationFactory.validateStationExists(startStationId, stations);
         StationValidator.validateCanHoldPassengers(station, startStationId);
 
-        Passenger passenger = new Passenger(passengerId, destStationId, station.getPosition());
+        Passenger passenger = new Passenger(passengerId, destStationId, stations.intern(destStationId), station.getPosition());
         station.addLoad(passenger);
 
-        // Debug: print the current loads at the station
-        System.out.println("DEBUG: createPassenger: Station " + startStationId + " loads after addition: "
-                + station.getLoads().stream().map(l -> l.getLoad() + "(" + l.getType() + ")").toList());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("createPassenger: Station {} loads after addition: {}", startStationId,
+                    station.getLoads().stream().map(l -> l.getLoad() + "(" + l.getType() + ")").toList());
+        }
+        unpublished = true;
     }
 
     public void createCargo(String startStationId, String destStationId, String cargoId, int weight) {
@@ -127,9 +373,10 @@ public class TrainsController {
 
         StationValidator.validateCanHoldCargo(station, startStationId);
 
-        Cargo cargo = new Cargo(cargoId, destStationId, weight, station.getPosition());
+        Cargo cargo = new Cargo(cargoId, destStationId, stations.intern(destStationId), weight, station.getPosition());
 
         station.addLoad(cargo);
+        unpublished = true;
     }
 
     public void createPerishableCargo(String startStationId, String destStationId, String cargoId, int weight,
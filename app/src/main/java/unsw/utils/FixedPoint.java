@@ -0,0 +1,19 @@
+package unsw.utils;
+
+/**
+ * Conversions for the fixed-point coordinate mode, where distances are whole micro-units (millionths of a km).
+ */
+public class FixedPoint {
+    public static final long MICROS_PER_UNIT = 1_000_000;
+
+    /**
+     * @return the distance in micro-units, rounded to the nearest.
+     */
+    public static long toMicros(double distance) {
+        return Math.round(distance * MICROS_PER_UNIT);
+    }
+
+    public static double fromMicros(long micros) {
+        return (double) micros / MICROS_PER_UNIT;
+    }
+}
@@ -0,0 +1,115 @@
+package unsw.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out a dense int handle for every string ID it sees, and holds the entity registered under each handle.
+ *
+ * String IDs are only needed at the edges of the system (requests and responses). Inside the simulation entities
+ * refer to each other by handle, so lookups are an array index instead of a hash and equals on a string.
+ *
+ * A handle can exist before its entity does, e.g. a load can be destined for a station that hasn't been created
+ * yet. When the station is created it is registered under the same handle.
+ */
+public class IdTable<T> {
+    public static final int NONE = -1;
+
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final List<T> entities = new ArrayList<>();
+
+    /**
+     * @return the handle of the ID, allocating a new one if it hasn't been seen before.
+     */
+    public int intern(String id) {
+        Integer handle = handles.get(id);
+        return handle != null ? handle : allocate(id);
+    }
+
+    /**
+     * @return the handle of the ID, or NONE if it hasn't been seen before.
+     */
+    public int find(String id) {
+        Integer handle = handles.get(id);
+        return handle != null ? handle : NONE;
+    }
+
+    public String idOf(int handle) {
+        return ids.get(handle);
+    }
+
+    /**
+     * @return the entity registered under the handle, or null if there isn't one.
+     */
+    public T get(int handle) {
+        return handle >= 0 && handle < entities.size() ? entities.get(handle) : null;
+    }
+
+    /**
+     * @return the entity registered under the ID, or null if there isn't one.
+     */
+    public T get(String id) {
+        return get(find(id));
+    }
+
+    public boolean contains(String id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Registers the entity under the ID's handle.
+     * @return the handle.
+     */
+    public int put(String id, T entity) {
+        int handle = intern(id);
+        entities.set(handle, entity);
+        return handle;
+    }
+
+    /**
+     * @return the IDs of every registered entity, in handle order.
+     */
+    public List<String> registeredIds() {
+        List<String> registered = new ArrayList<>();
+        for (int handle = 0; handle < entities.size(); handle++) {
+            if (entities.get(handle) != null) {
+                registered.add(ids.get(handle));
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * @return every registered entity, in handle order.
+     */
+    public List<T> values() {
+        List<T> registered = new ArrayList<>();
+        for (T entity : entities) {
+            if (entity != null) {
+                registered.add(entity);
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * @return the number of handles handed out, including those with no entity yet.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int allocate(String id) {
+        Integer handle = handles.get(id);
+        if (handle == null) {
+            handle = ids.size();
+            ids.add(id);
+            entities.add(null);
+            handles.put(id, handle);
+        }
+        return handle;
+    }
+}
@@ -0,0 +1,103 @@
+package unsw.utils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Remembers the JSON of info responses by entity ID, evicting the least recently used once full.
+ *
+ * A response is replaced with a new instance whenever its entity changes, so a cached JSON is only used for the
+ * exact response instance it was written from. Asking again for an entity that hasn't changed costs a lookup.
+ */
+public class ResponseJsonCache {
+    private final Function<Object, String> serializer;
+    private final Map<String, Fragment> fragments;
+
+    /**
+     * The JSON written for one response.
+     */
+    private static final class Fragment {
+        private final Object response;
+        private final String json;
+
+        Fragment(Object response, String json) {
+            this.response = response;
+            this.json = json;
+        }
+    }
+
+    public ResponseJsonCache(int capacity, Function<Object, String> serializer) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.serializer = serializer;
+        this.fragments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fragment> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the JSON of the response of the entity with the given ID.
+     */
+    public String toJson(String id, Object response) {
+        Fragment fragment;
+        synchronized (fragments) {
+            fragment = fragments.get(id);
+        }
+        if (fragment != null && fragment.response == response) {
+            return fragment.json;
+        }
+        // serialize outside the lock so other readers aren't held up
+        fragment = new Fragment(response, serializer.apply(response));
+        synchronized (fragments) {
+            fragments.put(id, fragment);
+        }
+        return fragment.json;
+    }
+
+    /**
+     * @return the JSON array of the given responses.
+     */
+    public <R> String toJsonArray(List<R> responses, Function<R, String> idOf) {
+        StringWriter json = new StringWriter();
+        try {
+            writeJsonArray(responses, idOf, json);
+        } catch (IOException e) {
+            // a StringWriter doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Writes the JSON array of the given responses to out one response at a time, so the whole array is never
+     * held in memory at once.
+     */
+    public <R> void writeJsonArray(List<R> responses, Function<R, String> idOf, Writer out) throws IOException {
+        out.write('[');
+        boolean first = true;
+        for (R response : responses) {
+            if (!first) {
+                out.write(',');
+            }
+            first = false;
+            out.write(toJson(idOf.apply(response), response));
+        }
+        out.write(']');
+    }
+
+    public int size() {
+        synchronized (fragments) {
+            return fragments.size();
+        }
+    }
+}
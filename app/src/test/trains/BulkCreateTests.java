@@ -0,0 +1,70 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import unsw.trains.BulkItem;
+import unsw.trains.BulkResult;
+import unsw.trains.Snapshot;
+import unsw.trains.TrainsController;
+
+public class BulkCreateTests {
+    @Test
+    public void testFailedItemsDoNotStopTheRest() {
+        TrainsController controller = new TrainsController();
+        List<Snapshot> published = new ArrayList<>();
+        controller.addPublishListener(published::add);
+
+        BulkResult result = controller.createAll(List.of(
+                new BulkItem("s1", c -> c.createStation("s1", "CentralStation", 0, 0)),
+                new BulkItem("s2", c -> c.createStation("s2", "CentralStation", 10, 0)),
+                new BulkItem("t1", c -> c.createTrack("t1", "s1", "s3")),
+                new BulkItem("t1", c -> c.createTrack("t1", "s1", "s2")),
+                new BulkItem("p1", c -> c.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2")))).iterator());
+
+        assertEquals(4, result.getCreated());
+        assertEquals(1, result.getErrors().size());
+        BulkResult.ItemError error = result.getErrors().get(0);
+        assertEquals(2, error.getIndex());
+        assertEquals("t1", error.getId());
+
+        // everything is published at once at the end
+        assertEquals(1, published.size());
+        assertEquals(List.of("s1", "s2"), controller.listStationIds());
+        assertEquals("s1", controller.getTrainInfo("p1").getLocation());
+    }
+
+    @Test
+    public void testUnreadableItemsAreReported() {
+        TrainsController controller = new TrainsController();
+        Iterator<BulkItem> items = new Iterator<>() {
+            private int read = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public BulkItem next() {
+                if (read++ == 1) {
+                    throw new IllegalStateException("Malformed item");
+                }
+                return new BulkItem("s1", c -> c.createStation("s1", "CentralStation", 0, 0));
+            }
+        };
+
+        BulkResult result = controller.createAll(items);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertNull(result.getErrors().get(0).getId());
+        assertEquals("IllegalStateException", result.getErrors().get(0).getType());
+        assertEquals(List.of("s1"), controller.listStationIds());
+    }
+}
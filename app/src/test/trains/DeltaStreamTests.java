@@ -0,0 +1,83 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.trains.DeltaEvent;
+import unsw.trains.DeltaStream;
+import unsw.trains.TrainsController;
+import unsw.utils.Position;
+
+public class DeltaStreamTests {
+    private TrainsController createNetwork() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 3, 0);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2"));
+        return controller;
+    }
+
+    private DeltaStream.Batch next(DeltaStream.Subscription subscription) throws InterruptedException {
+        return subscription.poll(0, TimeUnit.SECONDS);
+    }
+
+    private List<DeltaEvent.Type> types(DeltaStream.Batch batch) {
+        return batch.getEvents().stream().map(DeltaEvent::getType).toList();
+    }
+
+    @Test
+    public void testChangesAreStreamedPerTick() throws Exception {
+        TrainsController controller = createNetwork();
+        controller.getSnapshot();
+        DeltaStream deltas = new DeltaStream(controller);
+        DeltaStream.Subscription subscription = deltas.subscribe();
+
+        DeltaStream.Batch first = next(subscription);
+        assertTrue(first.isResync());
+        assertEquals(0, first.getTick());
+
+        // creates are published by the next read
+        controller.createPassenger("s1", "s2", "a");
+        assertNull(next(subscription));
+        controller.getSnapshot();
+        assertEquals(List.of(DeltaEvent.Type.LOAD_CREATED), types(next(subscription)));
+
+        // picks up the passenger and moves off
+        controller.simulate();
+        DeltaStream.Batch departed = next(subscription);
+        assertEquals(1, departed.getTick());
+        assertEquals(List.of(DeltaEvent.Type.TRAIN_MOVED, DeltaEvent.Type.LOAD_PICKED_UP), types(departed));
+        assertEquals(new Position(2, 0), departed.getEvents().get(0).getPosition());
+
+        // arrives and drops the passenger off
+        controller.simulate();
+        DeltaStream.Batch arrived = next(subscription);
+        assertEquals(List.of(DeltaEvent.Type.TRAIN_MOVED, DeltaEvent.Type.TRAIN_ARRIVED,
+                DeltaEvent.Type.LOAD_DELIVERED), types(arrived));
+        assertEquals("s2", arrived.getEvents().get(1).getStationId());
+        assertEquals("a", arrived.getEvents().get(2).getLoadId());
+
+        subscription.close();
+        controller.simulate();
+        assertNull(next(subscription));
+    }
+
+    @Test
+    public void testSlowSubscriberIsToldToResync() throws Exception {
+        TrainsController controller = createNetwork();
+        DeltaStream deltas = new DeltaStream(controller);
+        DeltaStream.Subscription subscription = deltas.subscribe();
+
+        controller.simulate(DeltaStream.QUEUE_CAPACITY * 2);
+
+        DeltaStream.Batch batch = next(subscription);
+        assertTrue(batch.isResync());
+        assertTrue(batch.getTick() > 0);
+        assertTrue(batch.getEvents().isEmpty());
+    }
+}
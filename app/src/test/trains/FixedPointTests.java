@@ -0,0 +1,61 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.SimulationEngine;
+import unsw.trains.TrainsController;
+import unsw.utils.FixedPoint;
+
+public class FixedPointTests {
+    private TrainsController createNetwork(SimulationEngine engine) throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.setSimulationEngine(engine);
+        controller.setFixedPointPositions(true);
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 7.3, 2.9);
+        controller.createStation("s3", "CentralStation", 13.1, 17.7);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2", "s3"));
+        controller.createTrain("c1", "CargoTrain", "s3", List.of("s1", "s2", "s3"));
+        controller.createTrack("t3", "s3", "s1");
+        controller.createTrain("b1", "BulletTrain", "s2", List.of("s1", "s2", "s3"));
+        return controller;
+    }
+
+    @Test
+    public void testEnginesAgreeExactly() throws InvalidRouteException {
+        TrainsController sequential = createNetwork(SimulationEngine.SEQUENTIAL);
+        TrainsController eventDriven = createNetwork(SimulationEngine.EVENT_DRIVEN);
+        for (int i = 0; i < 20; i++) {
+            sequential.simulate(7);
+            eventDriven.simulate(7);
+            for (String trainId : List.of("p1", "c1", "b1")) {
+                TrainInfoResponse expected = sequential.getTrainInfo(trainId);
+                TrainInfoResponse actual = eventDriven.getTrainInfo(trainId);
+                assertEquals(expected.getLocation(), actual.getLocation());
+                assertEquals(expected.getPosition().getX(), actual.getPosition().getX(), 0);
+                assertEquals(expected.getPosition().getY(), actual.getPosition().getY(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testTrainsMoveInWholeMicroUnits() throws InvalidRouteException {
+        TrainsController controller = createNetwork(SimulationEngine.SEQUENTIAL);
+        controller.setFixedPointPositions(false);
+        controller.simulate(3);
+        // part-way along a leg, then onto the nearest micro-unit
+        controller.setFixedPointPositions(true);
+        for (int i = 0; i < 30; i++) {
+            controller.simulate();
+            double x = controller.getTrainInfo("p1").getPosition().getX();
+            assertEquals(x, FixedPoint.fromMicros(FixedPoint.toMicros(x)), 0);
+        }
+    }
+}
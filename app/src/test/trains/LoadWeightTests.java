@@ -0,0 +1,55 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.LoadInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.TrainsController;
+
+public class LoadWeightTests {
+    @Test
+    public void testSpeedFollowsTheWeightOnBoard() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 9, 0);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createCargo("s1", "s2", "c1", 1000);
+        controller.createPassenger("s1", "s2", "p1");
+        controller.createTrain("b1", "BulletTrain", "s1", List.of("s1", "s2"));
+
+        // 1070kg on board slows the train by 10.7%
+        controller.simulate();
+        assertEquals(5 * (1 - 0.107), controller.getTrainInfo("b1").getPosition().getX(), 0.0001);
+
+        // drops both off at s2 and heads back at full speed
+        controller.simulate(2);
+        assertEquals("s2", controller.getTrainInfo("b1").getLocation());
+        assertEquals(List.of(), controller.getTrainInfo("b1").getLoads());
+        controller.simulate();
+        assertEquals(4, controller.getTrainInfo("b1").getPosition().getX(), 0.0001);
+    }
+
+    @Test
+    public void testDeliveredCargoLeavesRoomForMore() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("a", "CargoStation", 0, 0);
+        controller.createStation("b", "CargoStation", 4, 0);
+        controller.createStation("c", "CargoStation", 8, 0);
+        controller.createTrack("ab", "a", "b");
+        controller.createTrack("bc", "b", "c");
+        controller.createCargo("a", "b", "c1", 3000);
+        controller.createCargo("b", "c", "c3", 4000);
+        controller.createTrain("t1", "CargoTrain", "a", List.of("a", "b", "c"));
+
+        // drops c1 off at b, which leaves room under the 5000kg limit for c3
+        controller.simulate(2);
+        TrainInfoResponse info = controller.getTrainInfo("t1");
+        assertEquals("b", info.getLocation());
+        assertEquals(List.of("c3"), info.getLoads().stream().map(LoadInfoResponse::getLoadId).toList());
+        assertEquals(List.of(), controller.getStationInfo("b").getLoads());
+    }
+}
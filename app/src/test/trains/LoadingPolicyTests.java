@@ -0,0 +1,88 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.LoadInfoResponse;
+import unsw.stations.LoadingPolicy;
+import unsw.trains.TrainsController;
+
+public class LoadingPolicyTests {
+    private TrainsController createNetwork() {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CargoStation", 0, 0);
+        controller.createStation("s2", "CargoStation", 10, 0);
+        controller.createStation("s3", "CargoStation", 20, 0);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        return controller;
+    }
+
+    private List<String> loadedBy(TrainsController controller, String trainId) throws InvalidRouteException {
+        controller.createTrain(trainId, "CargoTrain", "s1", List.of("s1", "s2", "s3"));
+        controller.simulate();
+        return controller.getTrainInfo(trainId).getLoads().stream().map(LoadInfoResponse::getLoadId).toList();
+    }
+
+    @Test
+    public void testBestFitFillsTheTrain() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        controller.createCargo("s1", "s2", "a", 2000);
+        controller.createCargo("s1", "s2", "b", 2500);
+        controller.createCargo("s1", "s2", "c", 3000);
+
+        controller.setLoadingPolicy(LoadingPolicy.BEST_FIT);
+        assertEquals(List.of("c", "a"), loadedBy(controller, "c1"));
+        assertEquals(1, controller.getStationInfo("s1").getLoads().size());
+    }
+
+    @Test
+    public void testBestFitGoesHeaviestFirstAcrossDestinations() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        controller.createCargo("s1", "s3", "a", 2000);
+        controller.createCargo("s1", "s2", "b", 2500);
+        controller.createCargo("s1", "s3", "c", 3000);
+        controller.createCargo("s1", "s2", "d", 1000);
+
+        controller.setLoadingPolicy(LoadingPolicy.BEST_FIT);
+        assertEquals(List.of("c", "a"), loadedBy(controller, "c1"));
+
+        // what was left is still there to be taken in any order
+        controller.setLoadingPolicy(LoadingPolicy.LEXICOGRAPHIC);
+        assertEquals(List.of("b", "d"), loadedBy(controller, "c2"));
+        assertEquals(List.of(), controller.getStationInfo("s1").getLoads());
+    }
+
+    @Test
+    public void testDestinationClusteredTakesTheNextStopFirst() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        controller.createCargo("s1", "s3", "a", 3000);
+        controller.createCargo("s1", "s2", "b", 3000);
+
+        controller.setStationLoadingPolicy("s1", LoadingPolicy.DESTINATION_CLUSTERED);
+        assertEquals(List.of("b"), loadedBy(controller, "c1"));
+    }
+
+    @Test
+    public void testStationPolicyOverridesTheDefault() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        controller.createCargo("s1", "s2", "a", 2000);
+        controller.createCargo("s1", "s2", "b", 2500);
+        controller.createCargo("s1", "s2", "c", 3000);
+
+        controller.setStationLoadingPolicy("s1", LoadingPolicy.LEXICOGRAPHIC);
+        controller.setLoadingPolicy(LoadingPolicy.BEST_FIT);
+        assertEquals(List.of("a", "b"), loadedBy(controller, "c1"));
+
+        // back to following the default
+        controller.setStationLoadingPolicy("s1", null);
+        controller.createCargo("s1", "s2", "d", 1000);
+        controller.createCargo("s1", "s2", "e", 4000);
+        assertEquals(List.of("e", "d"), loadedBy(controller, "c2"));
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.setStationLoadingPolicy("nowhere", LoadingPolicy.BEST_FIT));
+    }
+}
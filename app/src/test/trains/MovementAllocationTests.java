@@ -0,0 +1,72 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import unsw.routes.LegTable;
+import unsw.routes.Route;
+import unsw.routes.RouteType;
+import unsw.stations.Station;
+import unsw.stations.StationFactory;
+import unsw.tracks.Track;
+import unsw.trains.BulletTrain;
+import unsw.trains.CargoTrain;
+import unsw.trains.PassengerTrain;
+import unsw.trains.Train;
+import unsw.trains.TrainStateStore;
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+public class MovementAllocationTests {
+    private static final int TICKS = 10_000;
+
+    private final IdTable<Station> stations = new IdTable<>();
+    private final IdTable<Track> tracks = new IdTable<>();
+    private final TrainStateStore states = new TrainStateStore(stations);
+
+    private Station createStation(String stationId, double x, double y) {
+        Station station = StationFactory.createStation(stationId, stations.intern(stationId), "CentralStation",
+                new Position(x, y));
+        stations.put(stationId, station);
+        return station;
+    }
+
+    /**
+     * @return the bytes the current thread allocated moving the train for TICKS ticks, after warming up.
+     */
+    private long allocatedWhileMoving(Train train) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        for (int i = 0; i < TICKS; i++) {
+            train.moveOneTick(stations, tracks);
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < TICKS; i++) {
+            train.moveOneTick(stations, tracks);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    @Test
+    public void testMovingBetweenStationsAllocatesNothing() {
+        Station start = createStation("s1", 0, 0);
+        createStation("s2", 1_000_000, 0);
+        Route route = new Route(List.of("s1", "s2"), RouteType.LINEAR, stations, new LegTable(stations));
+
+        List<Train> trains = List.of(new PassengerTrain("p1", start.getPosition(), "s1", route, states),
+                new CargoTrain("c1", start.getPosition(), "s1", route, states),
+                new BulletTrain("b1", start.getPosition(), "s1", route, states));
+        for (Train train : trains) {
+            start.addTrain(train);
+        }
+
+        for (Train train : trains) {
+            // well under a byte a tick, where a Position per tick would be tens of bytes
+            long allocated = allocatedWhileMoving(train);
+            assertTrue(allocated < TICKS, train.getTrainId() + " allocated " + allocated + " bytes");
+        }
+    }
+}
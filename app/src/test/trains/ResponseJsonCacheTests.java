@@ -0,0 +1,84 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.TrainsController;
+import unsw.utils.ResponseJsonCache;
+
+public class ResponseJsonCacheTests {
+    private final List<Object> serialized = new ArrayList<>();
+
+    private String serialize(Object response) {
+        serialized.add(response);
+        return "{" + serialized.size() + "}";
+    }
+
+    private TrainsController createNetwork() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 10, 0);
+        controller.createStation("s3", "DepotStation", 0, 10);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrain("a", "PassengerTrain", "s1", List.of("s1", "s2"));
+        controller.createTrain("b", "PassengerTrain", "s2", List.of("s1", "s2"));
+        return controller;
+    }
+
+    @Test
+    public void testOnlyChangedResponsesAreSerializedAgain() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        ResponseJsonCache cache = new ResponseJsonCache(16, this::serialize);
+
+        String json = cache.toJsonArray(controller.getSnapshot().listStationInfos(),
+                StationInfoResponse::getStationId);
+        assertEquals("[{1},{2},{3}]", json);
+
+        json = cache.toJsonArray(controller.getSnapshot().listStationInfos(), StationInfoResponse::getStationId);
+        assertEquals("[{1},{2},{3}]", json);
+        assertEquals(3, serialized.size());
+
+        // the trains at s1 and s2 move, nothing happens at s3
+        controller.simulate();
+        json = cache.toJsonArray(controller.getSnapshot().listStationInfos(), StationInfoResponse::getStationId);
+        assertEquals("[{4},{5},{3}]", json);
+    }
+
+    @Test
+    public void testWrittenArrayMatchesBuiltArray() throws Exception {
+        TrainsController controller = createNetwork();
+        ResponseJsonCache cache = new ResponseJsonCache(16, this::serialize);
+        List<TrainInfoResponse> infos = controller.getSnapshot().listTrainInfos();
+
+        StringWriter out = new StringWriter();
+        cache.writeJsonArray(infos, TrainInfoResponse::getTrainId, out);
+        assertEquals("[{1},{2}]", out.toString());
+        assertEquals(out.toString(), cache.toJsonArray(infos, TrainInfoResponse::getTrainId));
+
+        out = new StringWriter();
+        cache.writeJsonArray(List.of(), TrainInfoResponse::getTrainId, out);
+        assertEquals("[]", out.toString());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        ResponseJsonCache cache = new ResponseJsonCache(1, this::serialize);
+        TrainInfoResponse a = controller.getTrainInfo("a");
+        TrainInfoResponse b = controller.getTrainInfo("b");
+
+        cache.toJson("a", a);
+        cache.toJson("b", b);
+        cache.toJson("a", a);
+        assertEquals(List.of(a, b, a), serialized);
+        assertEquals(1, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new ResponseJsonCache(0, this::serialize));
+    }
+}
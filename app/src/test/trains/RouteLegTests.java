@@ -0,0 +1,136 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.routes.LegTable;
+import unsw.routes.Route;
+import unsw.routes.RouteLeg;
+import unsw.routes.RouteType;
+import unsw.stations.Station;
+import unsw.stations.StationFactory;
+import unsw.trains.SimulationEngine;
+import unsw.trains.TrainsController;
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+public class RouteLegTests {
+    @Test
+    public void testRoutesShareLegs() {
+        IdTable<Station> stations = new IdTable<>();
+        for (String stationId : List.of("s1", "s2", "s3")) {
+            stations.put(stationId, StationFactory.createStation(stationId, stations.intern(stationId),
+                    "CentralStation", new Position(stations.size() * 3, 4)));
+        }
+        LegTable legs = new LegTable(stations);
+        Route linear = new Route(List.of("s1", "s2", "s3"), RouteType.LINEAR, stations, legs);
+        Route cyclical = new Route(List.of("s1", "s2", "s3"), RouteType.CYCLICAL, stations, legs);
+
+        int s2 = stations.find("s2");
+        assertSame(linear.getLeg(s2, true), cyclical.getLeg(s2, true));
+        assertEquals(3, linear.getLeg(s2, true).getLength(), 0.0001);
+        // s1-s2, s2-s3 and s3-s1 both ways round
+        assertEquals(6, legs.size());
+    }
+
+    @Test
+    public void testPredictedPositionsMatchTheSimulation() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 7, 0);
+        controller.createStation("s3", "CentralStation", 7, 11);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2", "s3"));
+        controller.createTrack("t3", "s3", "s1");
+        controller.createTrain("b1", "BulletTrain", "s2", List.of("s1", "s2", "s3"));
+
+        controller.simulate(3);
+        for (String trainId : List.of("p1", "b1")) {
+            List<Position> predicted = new ArrayList<>();
+            for (int ticks = 0; ticks < 40; ticks++) {
+                predicted.add(controller.predictTrainPosition(trainId, ticks));
+            }
+            for (Position position : predicted) {
+                Position actual = controller.getTrainInfo(trainId).getPosition();
+                assertEquals(actual.getX(), position.getX(), 0.0001, trainId);
+                assertEquals(actual.getY(), position.getY(), 0.0001, trainId);
+                controller.simulate();
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> controller.predictTrainPosition("nowhere", 1));
+    }
+
+    /**
+     * @return the ticks the train first gets to each end of a leg, going back and forth between them.
+     */
+    private List<Integer> arrivalTicks(SimulationEngine engine, double x, double y, String type, int arrivals)
+            throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.setSimulationEngine(engine);
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", x, y);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrain("x", type, "s1", List.of("s1", "s2"));
+
+        List<Integer> ticks = new ArrayList<>();
+        String previous = "s1";
+        for (int tick = 1; ticks.size() < arrivals; tick++) {
+            controller.simulate();
+            String location = controller.getTrainInfo("x").getLocation();
+            if (!location.equals(previous) && location.startsWith("s")) {
+                ticks.add(tick);
+            }
+            previous = location;
+        }
+        return ticks;
+    }
+
+    @Test
+    public void testArrivalTicksMatchTheOriginalMovement() throws InvalidRouteException {
+        // recorded from the movement before legs were precomputed, which stepped by the distance left to the
+        // station each tick; legs a whole number of steps long only land on the station up to rounding
+        for (SimulationEngine engine : List.of(SimulationEngine.SEQUENTIAL, SimulationEngine.EVENT_DRIVEN)) {
+            assertEquals(List.of(3, 6, 9, 12), arrivalTicks(engine, 3, 4, "PassengerTrain", 4));
+            assertEquals(List.of(1, 2, 3, 4), arrivalTicks(engine, 3, 4, "BulletTrain", 4));
+            assertEquals(List.of(5, 10, 15, 20), arrivalTicks(engine, 6, 8, "PassengerTrain", 4));
+            assertEquals(List.of(25, 50, 75, 100), arrivalTicks(engine, 30, 40, "PassengerTrain", 4));
+            assertEquals(List.of(10, 20, 30, 40), arrivalTicks(engine, 30, 40, "BulletTrain", 4));
+            assertEquals(List.of(17), arrivalTicks(engine, 30, 40, "CargoTrain", 1));
+            assertEquals(List.of(8, 16, 24, 32), arrivalTicks(engine, 9, 12, "PassengerTrain", 4));
+            assertEquals(List.of(5), arrivalTicks(engine, 9, 12, "CargoTrain", 1));
+            assertEquals(List.of(7, 14, 21, 28), arrivalTicks(engine, 12, 5, "PassengerTrain", 4));
+            assertEquals(List.of(4, 8, 12, 16), arrivalTicks(engine, 7, 3, "PassengerTrain", 4));
+        }
+    }
+
+    @Test
+    public void testOffsetsAreExactOnLongLegs() {
+        long[] units = {1L << 62, -(1L << 62), 0x2666666666666666L, -0x3333333333333333L, 12345, -1};
+        long[] progresses = {0, 1, 2_000_000, 999_999_999_999L, 123_456_789_012_345L};
+        for (long unit : units) {
+            for (long progress : progresses) {
+                long expected = BigInteger.valueOf(unit).multiply(BigInteger.valueOf(progress))
+                        .add(BigInteger.ONE.shiftLeft(61)).shiftRight(62).longValueExact();
+                assertEquals(expected, RouteLeg.offsetMicros(unit, progress), unit + " * " + progress);
+            }
+        }
+
+        // a 3-4-5 leg three million km long, far past where the product fits in a long
+        IdTable<Station> stations = new IdTable<>();
+        stations.put("s1", StationFactory.createStation("s1", stations.intern("s1"), "CentralStation",
+                new Position(0, 0)));
+        stations.put("s2", StationFactory.createStation("s2", stations.intern("s2"), "CentralStation",
+                new Position(3_000_000, 4_000_000)));
+        RouteLeg leg = new LegTable(stations).get(stations.find("s1"), stations.find("s2"));
+        assertEquals(5_000_000_000_000L, leg.getLengthMicros());
+        assertEquals(3_000_000_000_000L, leg.xAtMicros(leg.getLengthMicros()));
+        assertEquals(4_000_000_000_000L, leg.yAtMicros(leg.getLengthMicros()));
+        assertEquals(600_000L, leg.xAtMicros(1_000_000));
+    }
+}
@@ -0,0 +1,162 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.SimulationEngine;
+import unsw.trains.TrainsController;
+import unsw.utils.Position;
+
+/**
+ * Every engine must leave the controller in the same state as the sequential one.
+ */
+public class SimulationEngineTests {
+    private TrainsController createNetwork(SimulationEngine engine) throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.setSimulationEngine(engine);
+
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "PassengerStation", 7, 3);
+        controller.createStation("s3", "CargoStation", 15, 11);
+        controller.createStation("s4", "CentralStation", 21, 2);
+        controller.createStation("s5", "DepotStation", 30, 9);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        controller.createTrack("t3", "s3", "s4");
+        controller.createTrack("t4", "s4", "s5");
+        controller.createTrack("t5", "s4", "s1");
+
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2", "s3"));
+        controller.createTrain("p2", "PassengerTrain", "s2", List.of("s2", "s3", "s4"));
+        controller.createTrain("c1", "CargoTrain", "s3", List.of("s3", "s4", "s5"));
+        controller.createTrain("b1", "BulletTrain", "s1", List.of("s1", "s2", "s3", "s4"));
+        controller.createTrain("b2", "BulletTrain", "s4", List.of("s4", "s5"));
+
+        controller.createPassenger("s1", "s3", "pa");
+        controller.createPassenger("s1", "s4", "pb");
+        controller.createPassenger("s2", "s1", "pc");
+        controller.createCargo("s3", "s5", "ca", 800);
+        controller.createCargo("s4", "s1", "cb", 1200);
+        return controller;
+    }
+
+    /**
+     * Asserts the trains and stations are the same, down to the last bit of every train's position.
+     */
+    private void assertSameState(TrainsController expected, TrainsController actual) {
+        for (String trainId : expected.listTrainIds()) {
+            TrainInfoResponse expectedInfo = expected.getTrainInfo(trainId);
+            TrainInfoResponse actualInfo = actual.getTrainInfo(trainId);
+            assertEquals(expectedInfo, actualInfo);
+            Position expectedPosition = expectedInfo.getPosition();
+            Position actualPosition = actualInfo.getPosition();
+            assertEquals(0, Double.compare(expectedPosition.getX(), actualPosition.getX()),
+                    trainId + " x " + actualPosition.getX());
+            assertEquals(0, Double.compare(expectedPosition.getY(), actualPosition.getY()),
+                    trainId + " y " + actualPosition.getY());
+        }
+        for (String stationId : expected.listStationIds()) {
+            assertEquals(expected.getStationInfo(stationId), actual.getStationInfo(stationId));
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws InvalidRouteException {
+        TrainsController sequential = createNetwork(SimulationEngine.SEQUENTIAL);
+        TrainsController parallel = createNetwork(SimulationEngine.PARALLEL);
+
+        for (int i = 0; i < 40; i++) {
+            sequential.simulate();
+            parallel.simulate();
+            assertSameState(sequential, parallel);
+        }
+
+        sequential.createPassenger("s4", "s2", "pd");
+        parallel.createPassenger("s4", "s2", "pd");
+        sequential.simulate(25);
+        parallel.simulate(25);
+        assertSameState(sequential, parallel);
+    }
+
+    @Test
+    public void testEventDrivenMatchesSequential() throws InvalidRouteException {
+        TrainsController sequential = createNetwork(SimulationEngine.SEQUENTIAL);
+        TrainsController eventDriven = createNetwork(SimulationEngine.EVENT_DRIVEN);
+
+        for (int minutes : List.of(1, 3, 7, 1, 12)) {
+            sequential.simulate(minutes);
+            eventDriven.simulate(minutes);
+            assertSameState(sequential, eventDriven);
+        }
+
+        sequential.createPassenger("s4", "s2", "pd");
+        eventDriven.createPassenger("s4", "s2", "pd");
+        sequential.createCargo("s1", "s3", "cc", 300);
+        eventDriven.createCargo("s1", "s3", "cc", 300);
+        sequential.simulate(500);
+        eventDriven.simulate(500);
+        assertSameState(sequential, eventDriven);
+    }
+
+    @Test
+    public void testEventDrivenArrivesOnTheSameTickOnADiagonal() throws InvalidRouteException {
+        // a 3-4-5 leg 50 long, a whole number of ticks at both speeds, so the last step lands on the station only
+        // up to rounding and the arrival tick hangs on doing the same arithmetic
+        TrainsController sequential = new TrainsController();
+        TrainsController eventDriven = new TrainsController();
+        eventDriven.setSimulationEngine(SimulationEngine.EVENT_DRIVEN);
+        for (TrainsController controller : List.of(sequential, eventDriven)) {
+            controller.createStation("s1", "CentralStation", 0, 0);
+            controller.createStation("s2", "CentralStation", 30, 40);
+            controller.createTrack("t1", "s1", "s2");
+            controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2"));
+            controller.createTrain("b1", "BulletTrain", "s2", List.of("s2", "s1"));
+        }
+
+        for (int minutes : List.of(9, 1, 14, 1, 33, 1, 41)) {
+            sequential.simulate(minutes);
+            eventDriven.simulate(minutes);
+            assertSameState(sequential, eventDriven);
+        }
+        assertEquals("s1", sequential.getTrainInfo("p1").getLocation());
+
+        for (int i = 0; i < 60; i++) {
+            sequential.simulate();
+            eventDriven.simulate();
+            assertSameState(sequential, eventDriven);
+        }
+    }
+
+    @Test
+    public void testFastForwardMatchesSequential() throws InvalidRouteException {
+        TrainsController sequential = createNetwork(SimulationEngine.SEQUENTIAL);
+        TrainsController fastForward = createNetwork(SimulationEngine.FAST_FORWARD);
+
+        // deliver everything first, then the network has nothing left to load and every train is periodic
+        sequential.simulate(300);
+        fastForward.simulate(300);
+        assertSameState(sequential, fastForward);
+
+        sequential.simulate(10007);
+        fastForward.simulate(10007);
+        assertSameState(sequential, fastForward);
+
+        // a new load puts the trains that can reach it back to stepping
+        sequential.createPassenger("s2", "s4", "pe");
+        fastForward.createPassenger("s2", "s4", "pe");
+        sequential.simulate(131);
+        fastForward.simulate(131);
+        assertSameState(sequential, fastForward);
+    }
+
+    @Test
+    public void testEngineCannotBeNull() {
+        TrainsController controller = new TrainsController();
+        assertThrows(IllegalArgumentException.class, () -> controller.setSimulationEngine(null));
+        assertEquals(SimulationEngine.SEQUENTIAL, controller.getSimulationEngine());
+    }
+}
@@ -0,0 +1,113 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.trains.SimulationJob;
+import unsw.trains.SimulationJobs;
+import unsw.trains.TrainsController;
+
+public class SimulationJobTests {
+    private TrainsController createNetwork() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 10, 0);
+        controller.createStation("s3", "CentralStation", 10, 10);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2", "s3"));
+        controller.createTrain("b1", "BulletTrain", "s3", List.of("s1", "s2", "s3"));
+        controller.createPassenger("s1", "s3", "a");
+        return controller;
+    }
+
+    @Test
+    public void testJobMatchesSimulatingDirectly() throws Exception {
+        TrainsController expected = createNetwork();
+        expected.simulate(1000);
+
+        TrainsController controller = createNetwork();
+        SimulationJobs jobs = new SimulationJobs(controller, new ReentrantLock());
+        SimulationJob job = jobs.submit(1000);
+        job.await();
+
+        assertEquals(SimulationJob.Status.DONE, job.getStatus());
+        assertEquals(1000, job.getTicksDone());
+        assertEquals(0, job.getEtaSeconds());
+        assertSame(job, jobs.get(job.getJobId()));
+        assertEquals(1000, controller.getSnapshot().getTick());
+        for (String trainId : expected.listTrainIds()) {
+            assertEquals(expected.getTrainInfo(trainId), controller.getTrainInfo(trainId));
+        }
+    }
+
+    @Test
+    public void testCancelledJobStopsBetweenSlices() throws Exception {
+        TrainsController controller = createNetwork();
+        ReentrantLock lock = new ReentrantLock();
+        SimulationJobs jobs = new SimulationJobs(controller, lock);
+
+        // holding the lock keeps the job from getting past its first slice
+        lock.lock();
+        SimulationJob job;
+        try {
+            job = jobs.submit(1000);
+            job.cancel();
+        } finally {
+            lock.unlock();
+        }
+        job.await();
+
+        assertEquals(SimulationJob.Status.CANCELLED, job.getStatus());
+        assertTrue(job.getTicksDone() <= 1);
+        assertEquals(job.getTicksDone(), controller.getSnapshot().getTick());
+        assertNull(jobs.get("no such job"));
+    }
+
+    @Test
+    public void testCreateIsNotHeldUpByARunningJob() throws Exception {
+        TrainsController controller = createNetwork();
+        ReentrantLock lock = new ReentrantLock(true);
+        SimulationJobs jobs = new SimulationJobs(controller, lock);
+        SimulationJob job = jobs.submit(Integer.MAX_VALUE);
+        while (job.getTicksDone() == 0) {
+            Thread.sleep(1);
+        }
+
+        // a fair lock lets the create in between two slices
+        lock.lock();
+        try {
+            controller.createStation("s4", "CentralStation", 20, 20);
+        } finally {
+            lock.unlock();
+        }
+
+        assertEquals(SimulationJob.Status.RUNNING, job.getStatus());
+        job.cancel();
+        job.await();
+        assertEquals(SimulationJob.Status.CANCELLED, job.getStatus());
+        assertTrue(controller.listStationIds().contains("s4"));
+    }
+
+    @Test
+    public void testErrorFailsTheJob() throws Exception {
+        TrainsController controller = new TrainsController() {
+            @Override
+            public void simulate(int numberOfMinutes) {
+                throw new StackOverflowError();
+            }
+        };
+        SimulationJob job = new SimulationJob("job", 10, controller, new ReentrantLock());
+
+        assertThrows(StackOverflowError.class, job::run);
+
+        assertTrue(job.isFinished());
+        assertEquals(SimulationJob.Status.FAILED, job.getStatus());
+        assertEquals("StackOverflowError", job.getError());
+        job.await();
+    }
+}
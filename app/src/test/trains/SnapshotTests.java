@@ -0,0 +1,137 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.Snapshot;
+import unsw.trains.TrainsController;
+import unsw.utils.Position;
+
+public class SnapshotTests {
+    private TrainsController createNetwork() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 10, 0);
+        controller.createStation("s3", "DepotStation", 50, 50);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrain("p1", "PassengerTrain", "s1", List.of("s1", "s2"));
+        return controller;
+    }
+
+    @Test
+    public void testSnapshotDoesNotChangeAfterSimulating() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        Snapshot before = controller.getSnapshot();
+
+        controller.simulate(2);
+
+        assertEquals(new Position(0, 0), before.getTrainInfo("p1").getPosition());
+        assertEquals(new Position(4, 0), controller.getTrainInfo("p1").getPosition());
+        assertEquals(before.getTick() + 2, controller.getSnapshot().getTick());
+    }
+
+    @Test
+    public void testUnchangedStationIsShared() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        StationInfoResponse depot = controller.getStationInfo("s3");
+        StationInfoResponse start = controller.getStationInfo("s1");
+
+        controller.simulate();
+
+        // nothing happens at the depot, while the train at s1 has moved
+        assertSame(depot, controller.getStationInfo("s3"));
+        assertNotSame(start, controller.getStationInfo("s1"));
+        assertEquals(List.of(controller.getTrainInfo("p1")), controller.getStationInfo("s1").getTrains());
+    }
+
+    @Test
+    public void testNewEntitiesArePublished() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        assertThrows(IllegalArgumentException.class, () -> controller.getTrainInfo("p2"));
+
+        controller.createTrain("p2", "PassengerTrain", "s2", List.of("s1", "s2"));
+        controller.createPassenger("s1", "s2", "a");
+
+        assertEquals(List.of("p1", "p2"), controller.listTrainIds());
+        TrainInfoResponse p2 = controller.getTrainInfo("p2");
+        assertEquals("s2", p2.getLocation());
+        assertEquals(1, controller.getStationInfo("s1").getLoads().size());
+    }
+
+    @Test
+    public void testChangedSinceTick() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        // published at tick 2 and again at tick 3
+        controller.simulate(2);
+        controller.simulate();
+        Snapshot seen = controller.getSnapshot();
+
+        // everything was created before tick 3, and only p1 has been moving since
+        assertEquals(List.of(), seen.listTrainInfosChangedSince(seen.getTick()));
+        assertEquals(List.of(controller.getTrainInfo("p1")), seen.listTrainInfosChangedSince(seen.getTick() - 1));
+
+        controller.createPassenger("s2", "s1", "a");
+        controller.simulate();
+        Snapshot now = controller.getSnapshot();
+        List<String> changedStations = now.listStationInfosChangedSince(seen.getTick()).stream()
+                .map(StationInfoResponse::getStationId).toList();
+        assertEquals(List.of("s1", "s2"), changedStations);
+        assertEquals(List.of(controller.getTrainInfo("p1")), now.listTrainInfosChangedSince(seen.getTick()));
+        assertEquals(List.of(), now.listTrackInfosChangedSince(seen.getTick()));
+        assertEquals(now.listTrackInfos(), now.listTrackInfosChangedSince(0));
+    }
+
+    @Test
+    public void testSimulatingPublishesOnceUnlessListenedTo() throws InvalidRouteException {
+        TrainsController controller = createNetwork();
+        Snapshot before = controller.getSnapshot();
+        controller.simulate(5);
+        // with no one listening only the end of the run is published, so nothing changed after ticks 1 to 4
+        assertEquals(before.getTick() + 5, controller.getSnapshot().getTick());
+        assertEquals(List.of(), controller.getSnapshot().listTrainInfosChangedSince(before.getTick() + 1));
+
+        List<Snapshot> published = new ArrayList<>();
+        Consumer<Snapshot> listener = published::add;
+        controller.addPublishListener(listener);
+        controller.simulate(5);
+        assertEquals(5, published.size());
+
+        controller.removePublishListener(listener);
+        controller.simulate(5);
+        assertEquals(5, published.size());
+    }
+
+    @Test
+    public void testCreatesArePublishedByTheNextRead() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        List<Snapshot> published = new ArrayList<>();
+        controller.addPublishListener(published::add);
+
+        int stations = 20000;
+        for (int i = 0; i < stations; i++) {
+            controller.createStation("s" + i, "CentralStation", i, 0);
+        }
+        for (int i = 1; i < stations; i++) {
+            controller.createTrack("t" + i, "s" + (i - 1), "s" + i);
+        }
+        controller.createTrain("p1", "PassengerTrain", "s0", List.of("s0", "s1"));
+        controller.createPassenger("s0", "s1", "a");
+
+        // one create at a time is as cheap as a bulk create: nothing is published until it is read
+        assertEquals(0, published.size());
+        assertTrue(controller.hasUnpublishedChanges());
+        assertEquals(stations, controller.listStationIds().size());
+        assertEquals(stations - 1, controller.listTrackIds().size());
+        assertEquals(1, controller.getStationInfo("s0").getLoads().size());
+        assertEquals(1, published.size());
+        assertFalse(controller.hasUnpublishedChanges());
+        assertSame(controller.getPublishedSnapshot(), controller.getSnapshot());
+    }
+}
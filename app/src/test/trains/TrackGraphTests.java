@@ -0,0 +1,48 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.stations.Station;
+import unsw.tracks.Track;
+import unsw.tracks.TrackGraph;
+import unsw.trains.TrainsController;
+import unsw.utils.IdTable;
+
+public class TrackGraphTests {
+    @Test
+    public void testStationsAreJoinedEitherWayRound() {
+        IdTable<Station> stations = new IdTable<>();
+        TrackGraph graph = new TrackGraph(stations);
+        graph.add(new Track("t1", 0, "s1", "s2"));
+        graph.add(new Track("t2", 1, "s3", "s1"));
+
+        assertTrue(graph.connects("s2", "s1"));
+        assertTrue(graph.connects("s1", "s3"));
+        assertFalse(graph.connects("s2", "s3"));
+        assertFalse(graph.connects("s1", "nowhere"));
+        assertEquals(List.of("t2"), graph.tracksBetween("s1", "s3").stream().map(Track::getTrackId).toList());
+        assertEquals(List.of("s2", "s3"), graph.neighboursOf("s1"));
+        assertEquals(List.of(), graph.neighboursOf("nowhere"));
+    }
+
+    @Test
+    public void testRouteIsCyclicalWhenEndsAreJoined() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CentralStation", 0, 0);
+        controller.createStation("s2", "CentralStation", 10, 0);
+        controller.createStation("s3", "CentralStation", 10, 10);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+        controller.createTrain("linear", "PassengerTrain", "s1", List.of("s1", "s2", "s3"));
+
+        // laid from the last station back to the first
+        controller.createTrack("t3", "s3", "s1");
+        assertThrows(InvalidRouteException.class,
+                () -> controller.createTrain("cyclical", "PassengerTrain", "s1", List.of("s1", "s2", "s3")));
+        controller.createTrain("bullet", "BulletTrain", "s1", List.of("s1", "s2", "s3"));
+    }
+}
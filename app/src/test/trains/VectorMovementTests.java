@@ -0,0 +1,56 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.TrainInfoResponse;
+import unsw.trains.TrainsController;
+
+public class VectorMovementTests {
+    private static final int STATIONS = 19;
+
+    private TrainsController createNetwork(boolean vectorMovement) throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.setVectorMovement(vectorMovement);
+        for (int i = 0; i < STATIONS; i++) {
+            controller.createStation("s" + i, "PassengerStation", i * 7.1, (i % 2) * 4.3);
+        }
+        for (int i = 1; i < STATIONS; i++) {
+            controller.createTrack("t" + i, "s" + (i - 1), "s" + i);
+        }
+        List<String> route = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            route.add("s" + i);
+        }
+        // two to a station, and more than fit in a vector so some are left to the plain loop
+        for (int i = 0; i < 37; i++) {
+            String type = i % 2 == 0 ? "PassengerTrain" : "BulletTrain";
+            controller.createTrain("train" + i, type, "s" + (i % STATIONS), route);
+        }
+        controller.createPassenger("s0", "s4", "p1");
+        controller.createPassenger("s3", "s1", "p2");
+        return controller;
+    }
+
+    @Test
+    public void testSameMovementAsMoveOneTick() throws InvalidRouteException {
+        TrainsController expected = createNetwork(false);
+        TrainsController actual = createNetwork(true);
+        for (int tick = 0; tick < 60; tick++) {
+            expected.simulate();
+            actual.simulate();
+            for (String trainId : expected.listTrainIds()) {
+                TrainInfoResponse want = expected.getTrainInfo(trainId);
+                TrainInfoResponse got = actual.getTrainInfo(trainId);
+                assertEquals(want.getLocation(), got.getLocation(), trainId);
+                assertEquals(want.getPosition().getX(), got.getPosition().getX(), 0, trainId);
+                assertEquals(want.getPosition().getY(), got.getPosition().getY(), 0, trainId);
+                assertEquals(want.getLoads().size(), got.getLoads().size(), trainId);
+            }
+        }
+    }
+}
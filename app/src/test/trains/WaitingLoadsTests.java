@@ -0,0 +1,40 @@
+package trains;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.response.models.LoadInfoResponse;
+import unsw.trains.TrainsController;
+
+public class WaitingLoadsTests {
+    private List<String> loadIds(List<LoadInfoResponse> loads) {
+        return loads.stream().map(LoadInfoResponse::getLoadId).toList();
+    }
+
+    @Test
+    public void testLoadsAreTakenInIdOrderAcrossDestinations() throws InvalidRouteException {
+        TrainsController controller = new TrainsController();
+        controller.createStation("s1", "CargoStation", 0, 0);
+        controller.createStation("s2", "CargoStation", 10, 0);
+        controller.createStation("s3", "CargoStation", 20, 0);
+        controller.createStation("s4", "CargoStation", 0, 20);
+        controller.createTrack("t1", "s1", "s2");
+        controller.createTrack("t2", "s2", "s3");
+
+        controller.createCargo("s1", "s2", "d", 1000);
+        controller.createCargo("s1", "s4", "a", 100);
+        controller.createCargo("s1", "s3", "c", 2500);
+        controller.createCargo("s1", "s2", "b", 3000);
+        controller.createTrain("c1", "CargoTrain", "s1", List.of("s1", "s2", "s3"));
+
+        controller.simulate();
+
+        // s4 isn't on the route, and c no longer fits once b is on
+        assertEquals(List.of("b", "d"), loadIds(controller.getTrainInfo("c1").getLoads()));
+        // the rest are still listed in the order they arrived
+        assertEquals(List.of("a", "c"), loadIds(controller.getStationInfo("s1").getLoads()));
+    }
+}
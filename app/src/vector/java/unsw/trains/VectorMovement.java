@@ -0,0 +1,40 @@
+package unsw.trains;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * MovementKernel's arithmetic with the Vector API. It lives in its own source set, only built with -PvectorApi, and
+ * MovementKernel only loads it when the jdk.incubator.vector module is present. Each lane does exactly the
+ * operations advanceTowards does, in the same order, so the results are the same to the bit.
+ */
+final class VectorMovement implements MovementKernel.Lanes {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public int advance(int count, double[] x, double[] y, double[] fromX, double[] fromY, double[] unitX,
+            double[] unitY, double[] length, double[] speed, double[] tolerance, boolean[] arrived) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector fx = DoubleVector.fromArray(SPECIES, fromX, i);
+            DoubleVector fy = DoubleVector.fromArray(SPECIES, fromY, i);
+            DoubleVector ux = DoubleVector.fromArray(SPECIES, unitX, i);
+            DoubleVector uy = DoubleVector.fromArray(SPECIES, unitY, i);
+            DoubleVector step = DoubleVector.fromArray(SPECIES, speed, i);
+
+            DoubleVector progress = DoubleVector.fromArray(SPECIES, x, i).sub(fx).mul(ux)
+                    .add(DoubleVector.fromArray(SPECIES, y, i).sub(fy).mul(uy));
+            DoubleVector remaining = DoubleVector.fromArray(SPECIES, length, i).sub(progress)
+                    .sub(DoubleVector.fromArray(SPECIES, tolerance, i));
+            VectorMask<Double> arrives = step.compare(VectorOperators.GE, remaining);
+            arrives.intoArray(arrived, i);
+
+            progress = progress.add(step);
+            fx.add(ux.mul(progress)).intoArray(x, i);
+            fy.add(uy.mul(progress)).intoArray(y, i);
+        }
+        return bound;
+    }
+}
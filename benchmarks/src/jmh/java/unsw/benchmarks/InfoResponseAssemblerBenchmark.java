@@ -0,0 +1,72 @@
+package unsw.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import unsw.response.models.InfoResponseAssembler;
+import unsw.response.models.StationInfoResponse;
+import unsw.response.models.TrainInfoResponse;
+import unsw.stations.Station;
+import unsw.trains.Simulator;
+import unsw.trains.Train;
+
+/**
+ * Building the info responses for the busiest train and station: the train with the most on board after a few
+ * ticks, and the station with the most trains and loads waiting.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InfoResponseAssemblerBenchmark {
+    private static final int STATIONS = 16;
+    private static final int TICKS_BEFORE = 5;
+
+    @Param({"16", "128"})
+    private int trains;
+
+    @Param({"4", "16"})
+    private int routeLength;
+
+    @Param({"0", "256", "4096"})
+    private int waitingLoads;
+
+    private Train train;
+    private Station station;
+
+    @Setup
+    public void setUp() {
+        Network network = new Network(STATIONS, trains, routeLength, waitingLoads);
+        for (int i = 0; i < TICKS_BEFORE; i++) {
+            Simulator.simulateOneTick(network.trains, network.stations, network.tracks);
+        }
+        for (Train candidate : network.trains.values()) {
+            if (train == null || candidate.getLoads().size() > train.getLoads().size()) {
+                train = candidate;
+            }
+        }
+        for (Station candidate : network.stations.values()) {
+            if (station == null || candidate.getTrains().size() + candidate.getLoads().size() > station.getTrains()
+                    .size() + station.getLoads().size()) {
+                station = candidate;
+            }
+        }
+    }
+
+    @Benchmark
+    public TrainInfoResponse toTrainInfoResponse() {
+        return InfoResponseAssembler.toTrainInfoResponse(train);
+    }
+
+    @Benchmark
+    public StationInfoResponse toStationInfoResponse() {
+        return InfoResponseAssembler.toStationInfoResponse(station);
+    }
+}
@@ -0,0 +1,103 @@
+package unsw.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import unsw.exceptions.InvalidRouteException;
+import unsw.loads.Cargo;
+import unsw.loads.Passenger;
+import unsw.routes.LegTable;
+import unsw.stations.Station;
+import unsw.stations.StationFactory;
+import unsw.tracks.Track;
+import unsw.tracks.TrackFactory;
+import unsw.tracks.TrackGraph;
+import unsw.trains.Train;
+import unsw.trains.TrainFactory;
+import unsw.trains.TrainRegistry;
+import unsw.trains.TrainStateStore;
+import unsw.utils.IdTable;
+import unsw.utils.Position;
+
+/**
+ * A line of central stations joined by tracks, with trains shuttling along stretches of it and loads waiting at the
+ * stations, built the same way TrainsController builds them. Everything is laid out from the sizes alone, so a
+ * given set of parameters always gives the same network.
+ */
+final class Network {
+    private static final String[] TRAIN_TYPES = {"PassengerTrain", "CargoTrain", "BulletTrain"};
+
+    final IdTable<Station> stations = new IdTable<>();
+    final IdTable<Track> tracks = new IdTable<>();
+    final TrainRegistry trains = new TrainRegistry();
+
+    private final TrackGraph trackGraph = new TrackGraph(stations);
+    private final LegTable legs = new LegTable(stations);
+    private final TrainStateStore states = new TrainStateStore(stations);
+
+    /**
+     * @param stationCount stations along the line.
+     * @param trainCount trains, at most 8 for each station.
+     * @param routeLength stations on each train's route, at least 2 and at most stationCount.
+     * @param waitingLoads loads spread over the stations, passengers and cargo in turn.
+     */
+    Network(int stationCount, int trainCount, int routeLength, int waitingLoads) {
+        for (int i = 0; i < stationCount; i++) {
+            String stationId = stationId(i);
+            stations.put(stationId, StationFactory.createStation(stationId, stations.intern(stationId),
+                    "CentralStation", new Position(i * 10, (i % 3) * 5)));
+        }
+        for (int i = 1; i < stationCount; i++) {
+            String trackId = "t" + i;
+            Track track = TrackFactory.createTrack(trackId, tracks.intern(trackId), stationId(i - 1), stationId(i));
+            tracks.put(trackId, track);
+            trackGraph.add(track);
+        }
+        for (int j = 0; j < trainCount; j++) {
+            // starts evenly spread over the stations, somewhere along a route covering its start
+            int start = j % stationCount;
+            int first = Math.max(0, Math.min(start - j % routeLength, stationCount - routeLength));
+            List<String> route = new ArrayList<>();
+            for (int i = first; i < first + routeLength; i++) {
+                route.add(stationId(i));
+            }
+            addTrain("train" + j, TRAIN_TYPES[j % TRAIN_TYPES.length], stations.get(stationId(start)), route);
+        }
+        for (int k = 0; k < waitingLoads; k++) {
+            Station station = stations.get(stationId(k % stationCount));
+            int destination = (k * 5 + 1) % stationCount;
+            if (destination == k % stationCount) {
+                destination = (destination + 1) % stationCount;
+            }
+            addLoad(station, "load" + k, destination, k % 2 == 0 ? 0 : 100 + (k % 10) * 50);
+        }
+    }
+
+    static String stationId(int index) {
+        return "s" + index;
+    }
+
+    Train addTrain(String trainId, String type, Station start, List<String> route) {
+        try {
+            Train train = TrainFactory.createTrain(trainId, type, start, route, stations, trackGraph, legs, states);
+            start.addTrain(train);
+            trains.add(train);
+            return train;
+        } catch (InvalidRouteException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a passenger, or with a weight cargo, waiting at the station.
+     */
+    void addLoad(Station station, String loadId, int destination, int weight) {
+        String destinationId = stationId(destination);
+        int handle = stations.intern(destinationId);
+        if (weight == 0) {
+            station.addLoad(new Passenger(loadId, destinationId, handle, station.getPosition()));
+        } else {
+            station.addLoad(new Cargo(loadId, destinationId, handle, weight, station.getPosition()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package unsw.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import unsw.routes.LegTable;
+import unsw.routes.Route;
+import unsw.routes.RouteType;
+
+/**
+ * Finding the next stop on a route, one lookup per invocation, going along the route so every stop is asked about
+ * in turn. The time per lookup should not grow with the route.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RouteBenchmark {
+    @Param({"4", "64", "1024"})
+    private int routeLength;
+
+    private Route route;
+    private String[] stationIds;
+    private int[] stationHandles;
+    private int cursor = 0;
+
+    @Setup
+    public void setUp() {
+        Network network = new Network(routeLength, 0, routeLength, 0);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < routeLength; i++) {
+            ids.add(Network.stationId(i));
+        }
+        route = new Route(ids, RouteType.LINEAR, network.stations, new LegTable(network.stations));
+        stationIds = ids.toArray(new String[0]);
+        stationHandles = new int[routeLength];
+        for (int i = 0; i < routeLength; i++) {
+            stationHandles[i] = network.stations.find(stationIds[i]);
+        }
+    }
+
+    private int next() {
+        cursor = cursor + 1 == routeLength ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public String getNextStation() {
+        return route.getNextStation(stationIds[next()], true);
+    }
+
+    @Benchmark
+    public int getNextStationHandle() {
+        return route.getNextStationHandle(stationHandles[next()], true);
+    }
+}
@@ -0,0 +1,48 @@
+package unsw.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import unsw.trains.Simulator;
+
+/**
+ * One tick of the sequential engine over the whole network. The network is built again for every iteration, so
+ * each iteration starts with the same loads waiting; trains deliver them as the iteration goes on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SimulatorBenchmark {
+    @Param({"16", "128"})
+    private int stations;
+
+    @Param({"16", "128"})
+    private int trains;
+
+    @Param({"4", "16"})
+    private int routeLength;
+
+    @Param({"0", "256"})
+    private int waitingLoads;
+
+    private Network network;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        network = new Network(stations, trains, routeLength, waitingLoads);
+    }
+
+    @Benchmark
+    public void simulateOneTick() {
+        Simulator.simulateOneTick(network.trains, network.stations, network.tracks);
+    }
+}
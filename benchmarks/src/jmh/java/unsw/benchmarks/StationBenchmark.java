@@ -0,0 +1,87 @@
+package unsw.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import unsw.loads.Load;
+import unsw.stations.LoadingPolicy;
+import unsw.stations.Station;
+import unsw.trains.Train;
+
+/**
+ * Station.loadTrain with passengers waiting for stations on and off the train's route, half of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StationBenchmark {
+    // a passenger train holds 3500kg of 70kg passengers
+    private static final int PASSENGERS_TO_FILL = 50;
+
+    @Param({"4", "16"})
+    private int routeLength;
+
+    @Param({"16", "256", "4096"})
+    private int waitingLoads;
+
+    @Param({"LEXICOGRAPHIC", "BEST_FIT", "DESTINATION_CLUSTERED"})
+    private LoadingPolicy policy;
+
+    private Station station;
+    private Train emptyTrain;
+    private Train fullTrain;
+
+    @Setup
+    public void setUp() {
+        int stationCount = 2 * routeLength;
+        Network network = new Network(stationCount, 0, routeLength, 0);
+        List<String> route = new ArrayList<>();
+        for (int i = 0; i < routeLength; i++) {
+            route.add(Network.stationId(i));
+        }
+        station = network.stations.get(Network.stationId(0));
+        emptyTrain = network.addTrain("empty", "PassengerTrain", station, route);
+        fullTrain = network.addTrain("full", "PassengerTrain", station, route);
+
+        for (int k = 0; k < PASSENGERS_TO_FILL; k++) {
+            network.addLoad(station, "filler" + k, 1, 0);
+        }
+        station.loadTrain(fullTrain);
+        for (int k = 0; k < waitingLoads; k++) {
+            network.addLoad(station, "load" + k, 1 + k % (stationCount - 1), 0);
+        }
+        station.setLoadingPolicy(policy, LoadingPolicy.LEXICOGRAPHIC);
+    }
+
+    /**
+     * Offers every waiting load to a train with no room for any of them.
+     */
+    @Benchmark
+    public void loadTrainWhenFull() {
+        station.loadTrain(fullTrain);
+    }
+
+    /**
+     * Fills an empty train, then puts the passengers back on the station for the next invocation, which is
+     * included in the time.
+     */
+    @Benchmark
+    public void loadTrainAndPutBack() {
+        station.loadTrain(emptyTrain);
+        List<Load> loaded = new ArrayList<>(emptyTrain.getLoads());
+        emptyTrain.removeLoads(loaded);
+        for (Load load : loaded) {
+            station.addLoad(load);
+        }
+    }
+}